@@ -12,6 +12,7 @@ public class BlockingQueueTask<T> {
 	private IDisposable disposable;
 	private boolean isStarted;
 	private Semaphore pause;
+	private QueueOverflow<T> overflow;
 
 	/**
 	 * Create a thread associated to a BlockingQueue.
@@ -21,9 +22,24 @@ public class BlockingQueueTask<T> {
 	 *                 to this queue.
 	 */
 	public BlockingQueueTask(String name, Consumer<T> consumer) {
+		this(name, 10000, consumer);
+	}
+
+	/**
+	 * Create a thread associated to a BlockingQueue. By default, adding an element
+	 * while the queue is full throws an {@link IllegalStateException}, the
+	 * behavior can be changed with {@link #getOverflow()}.
+	 * 
+	 * @param name     The thread name.
+	 * @param capacity The maximum number of pending elements.
+	 * @param consumer The code to execute asynchronously when an element is added
+	 *                 to this queue.
+	 */
+	public BlockingQueueTask(String name, int capacity, Consumer<T> consumer) {
 		this.consumer = consumer;
 
-		queue = new ArrayBlockingQueue<>(10000);
+		queue = new ArrayBlockingQueue<>(capacity);
+		overflow = new QueueOverflow<T>(EQueueOverflow.FAIL, 0);
 
 		queueThread = new Thread(() -> internalStart(), name);
 		queueThread.setDaemon(true);
@@ -51,10 +67,21 @@ public class BlockingQueueTask<T> {
 	 * perform an action asynchronously.
 	 * 
 	 * @param e The element to add.
+	 * 
+	 * @throws IllegalStateException If this queue is full and its overflow policy
+	 *                               is FAIL.
 	 */
 	public void add(T e) {
 		disposable.checkDisposed();
-		queue.add(e);
+		overflow.offer(queue, e);
+	}
+
+	/**
+	 * @return The behavior of this queue when an element is added while it is
+	 *         full, and the associated counters.
+	 */
+	public QueueOverflow<T> getOverflow() {
+		return overflow;
 	}
 
 	/**
@@ -2,10 +2,14 @@ package fr.pederobien.utils;
 
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Objects;
 import java.util.StringJoiner;
 
 public class ByteWrapper {
 	private byte[] buffer;
+	private int size;
+	private ByteOrder endianness;
 	private ByteBuffer byteBuffer;
 
 	/**
@@ -17,6 +21,8 @@ public class ByteWrapper {
 	 */
 	private ByteWrapper(byte[] buffer, ByteOrder endianness) {
 		this.buffer = buffer;
+		size = buffer.length;
+		this.endianness = endianness;
 		byteBuffer = ByteBuffer.wrap(buffer).order(endianness);
 	}
 
@@ -61,7 +67,7 @@ public class ByteWrapper {
 	 * @param endianness The byte order to use.
 	 */
 	public static ByteWrapper create(ByteOrder endianness) {
-		return wrap(new byte[0]);
+		return wrap(new byte[0], endianness);
 	}
 
 	/**
@@ -163,6 +169,27 @@ public class ByteWrapper {
 		return internalPut(ByteBuffer.allocate(8).putDouble(value).array());
 	}
 
+	/**
+	 * Creates the variable length bytes array associated to the given long number
+	 * and concatenates the result to this buffer. Each byte stores 7 bits of the
+	 * value, the most significant bit is set if another byte follows. Small
+	 * positive values are then stored on fewer bytes, from 1 byte for values lower
+	 * than 128 up to 10 bytes for negative values.
+	 * 
+	 * @param value The long value to add.
+	 * 
+	 * @return A byte wrapper.
+	 */
+	public ByteWrapper putVarLong(long value) {
+		ensureCapacity(10);
+		while ((value & ~0x7FL) != 0) {
+			buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		buffer[size++] = (byte) value;
+		return this;
+	}
+
 	/**
 	 * Concatenates the bytes array associated to the given string to this buffer.
 	 * 
@@ -201,6 +228,7 @@ public class ByteWrapper {
 	 * @return The byte at the given index
 	 */
 	public byte get(int index) {
+		checkIndex(index, Byte.BYTES);
 		return byteBuffer.get(index);
 	}
 
@@ -213,6 +241,7 @@ public class ByteWrapper {
 	 * @return The short value at the given index.
 	 */
 	public short getShort(int index) {
+		checkIndex(index, Short.BYTES);
 		return byteBuffer.getShort(index);
 	}
 
@@ -225,6 +254,7 @@ public class ByteWrapper {
 	 * @return The int value at the given index.
 	 */
 	public int getInt(int index) {
+		checkIndex(index, Integer.BYTES);
 		return byteBuffer.getInt(index);
 	}
 
@@ -237,6 +267,7 @@ public class ByteWrapper {
 	 * @return The long value at the given index.
 	 */
 	public long getLong(int index) {
+		checkIndex(index, Long.BYTES);
 		return byteBuffer.getLong(index);
 	}
 
@@ -249,6 +280,7 @@ public class ByteWrapper {
 	 * @return The float value at the given index.
 	 */
 	public float getFloat(int index) {
+		checkIndex(index, Float.BYTES);
 		return byteBuffer.getFloat(index);
 	}
 
@@ -261,6 +293,7 @@ public class ByteWrapper {
 	 * @return The double value at the given index.
 	 */
 	public double getDouble(int index) {
+		checkIndex(index, Double.BYTES);
 		return byteBuffer.getDouble(index);
 	}
 
@@ -268,7 +301,7 @@ public class ByteWrapper {
 	 * @return Creates a String based on this buffer.
 	 */
 	public String getString() {
-		return new String(buffer);
+		return new String(get());
 	}
 
 	/**
@@ -295,6 +328,11 @@ public class ByteWrapper {
 	 * @return The buffer associated to this wrapper.
 	 */
 	public byte[] get() {
+		// Removing the room reserved for the next bytes
+		if (buffer.length != size) {
+			buffer = Arrays.copyOf(buffer, size);
+			byteBuffer = ByteBuffer.wrap(buffer).order(endianness);
+		}
 		return buffer;
 	}
 
@@ -315,6 +353,8 @@ public class ByteWrapper {
 		System.arraycopy(get(), 0, intermediate, 0, index);
 		System.arraycopy(get(), index + length, intermediate, index, get().length - (index + length));
 		buffer = intermediate;
+		size = buffer.length;
+		byteBuffer = ByteBuffer.wrap(buffer).order(endianness);
 		return result;
 	}
 
@@ -328,6 +368,7 @@ public class ByteWrapper {
 	 * @return A bytes array.
 	 */
 	public byte[] extract(int index, int length) {
+		checkIndex(index, length);
 		byte[] intermediate = new byte[length];
 		System.arraycopy(buffer, index, intermediate, 0, length);
 		return intermediate;
@@ -354,12 +395,38 @@ public class ByteWrapper {
 	}
 
 	private ByteWrapper internalPut(byte[] buffer) {
-		byte[] intermediate = new byte[get().length + buffer.length];
-		System.arraycopy(get(), 0, intermediate, 0, get().length);
-		System.arraycopy(buffer, 0, intermediate, get().length, buffer.length);
-		this.buffer = intermediate;
-		byteBuffer = ByteBuffer.wrap(this.buffer);
+		ensureCapacity(buffer.length);
+		System.arraycopy(buffer, 0, this.buffer, size, buffer.length);
+		size += buffer.length;
 		return this;
 	}
 
+	/**
+	 * Checks that the given range is within the bytes written in this wrapper, the
+	 * room reserved for the next bytes excluded.
+	 * 
+	 * @param index  The index of the first byte to read.
+	 * @param length The number of bytes to read.
+	 * 
+	 * @throws IndexOutOfBoundsException If the range is out of bounds.
+	 */
+	private void checkIndex(int index, int length) {
+		Objects.checkFromIndexSize(index, length, size);
+	}
+
+	/**
+	 * Grows the underlying array, if needed, so that the given number of bytes can
+	 * be added. The array is at least doubled so that appending bytes one by one
+	 * does not copy the whole array each time.
+	 * 
+	 * @param length The number of bytes to add.
+	 */
+	private void ensureCapacity(int length) {
+		if (buffer.length - size >= length)
+			return;
+
+		buffer = Arrays.copyOf(buffer, Math.max(size + length, Math.max(16, 2 * buffer.length)));
+		byteBuffer = ByteBuffer.wrap(buffer).order(endianness);
+	}
+
 }
@@ -0,0 +1,45 @@
+package fr.pederobien.utils;
+
+/**
+ * Represents the behavior of a queue when an element is added while the queue
+ * is full.
+ */
+public enum EQueueOverflow {
+
+	/**
+	 * An {@link IllegalStateException} is thrown to the thread that adds the
+	 * element.
+	 */
+	FAIL,
+
+	/**
+	 * The thread that adds the element waits until there is room in the queue, or
+	 * until the timeout has elapsed. The element is discarded if the timeout has
+	 * elapsed.
+	 */
+	BLOCK,
+
+	/**
+	 * The new element is discarded.
+	 */
+	DROP_NEWEST,
+
+	/**
+	 * The oldest pending element is discarded in order to make room for the new
+	 * one.
+	 */
+	DROP_OLDEST,
+
+	/**
+	 * One new element out of the sample rate is added, the oldest pending element
+	 * being discarded in order to make room for it, the other new elements are
+	 * discarded.
+	 */
+	SAMPLE,
+
+	/**
+	 * The new element is given to the spill consumer by the thread that adds the
+	 * element. The element is discarded if there is no spill consumer.
+	 */
+	SPILL;
+}
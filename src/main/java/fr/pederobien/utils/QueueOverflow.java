@@ -0,0 +1,226 @@
+package fr.pederobien.utils;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+public class QueueOverflow<T> {
+	private volatile EQueueOverflow policy;
+	private volatile long timeout;
+	private volatile int sampleRate;
+	private volatile Consumer<? super T> spill;
+	private AtomicLong overflowed;
+	private LongAdder dropped, blocked, spilled;
+
+	/**
+	 * Creates the overflow handling of a queue.
+	 * 
+	 * @param policy  The behavior of the queue when an element is added while it
+	 *                is full.
+	 * @param timeout The maximum time, in milliseconds, during which a thread
+	 *                waits for room in the queue with the BLOCK policy.
+	 */
+	public QueueOverflow(EQueueOverflow policy, long timeout) {
+		this.policy = policy;
+		this.timeout = timeout;
+
+		sampleRate = 10;
+		overflowed = new AtomicLong();
+		dropped = new LongAdder();
+		blocked = new LongAdder();
+		spilled = new LongAdder();
+	}
+
+	/**
+	 * Adds the given element in the given queue, applying the overflow policy if
+	 * the queue is full.
+	 * 
+	 * @param queue The queue in which the element is added.
+	 * @param e     The element to add.
+	 * 
+	 * @return True if the element has been added in the queue.
+	 * 
+	 * @throws IllegalStateException If the queue is full and the policy is FAIL.
+	 */
+	public boolean offer(BlockingQueue<T> queue, T e) {
+		if (queue.offer(e))
+			return true;
+
+		switch (policy) {
+		case FAIL:
+			throw new IllegalStateException("Queue full");
+		case BLOCK:
+			blocked.increment();
+			try {
+				if (queue.offer(e, timeout, TimeUnit.MILLISECONDS))
+					return true;
+			} catch (InterruptedException exception) {
+				Thread.currentThread().interrupt();
+			}
+			break;
+		case DROP_OLDEST:
+			return replaceOldest(queue, e);
+		case SAMPLE:
+			if (overflowed.getAndIncrement() % sampleRate == 0)
+				return replaceOldest(queue, e);
+			break;
+		case SPILL:
+			Consumer<? super T> consumer = spill;
+			if (consumer != null) {
+				spilled.increment();
+				consumer.accept(e);
+				return false;
+			}
+			break;
+		default:
+			break;
+		}
+
+		dropped.increment();
+		return false;
+	}
+
+	/**
+	 * Adds the given element with the given function, applying the overflow policy
+	 * if the function fails to add it. Since the pending elements are not
+	 * accessible, the DROP_OLDEST and SAMPLE policies discard the new element and
+	 * the BLOCK policy retries periodically until the timeout has elapsed.
+	 * 
+	 * @param offer The function that adds the element, returning false if there is
+	 *              no more space.
+	 * @param e     The element to add.
+	 * 
+	 * @return True if the element has been added.
+	 * 
+	 * @throws IllegalStateException If there is no more space and the policy is
+	 *                               FAIL.
+	 */
+	public boolean offer(Predicate<? super T> offer, T e) {
+		if (offer.test(e))
+			return true;
+
+		switch (policy) {
+		case FAIL:
+			throw new IllegalStateException("Queue full");
+		case BLOCK:
+			blocked.increment();
+			long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+			while (System.nanoTime() - deadline < 0 && !Thread.currentThread().isInterrupted()) {
+				LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(50));
+				if (offer.test(e))
+					return true;
+			}
+			break;
+		case SPILL:
+			Consumer<? super T> consumer = spill;
+			if (consumer != null) {
+				spilled.increment();
+				consumer.accept(e);
+				return false;
+			}
+			break;
+		default:
+			break;
+		}
+
+		dropped.increment();
+		return false;
+	}
+
+	/**
+	 * @param policy The behavior of the queue when an element is added while it is
+	 *               full.
+	 * 
+	 * @return This overflow handling.
+	 */
+	public QueueOverflow<T> policy(EQueueOverflow policy) {
+		this.policy = policy;
+		return this;
+	}
+
+	/**
+	 * @param timeout The maximum time, in milliseconds, during which a thread waits
+	 *                for room in the queue with the BLOCK policy.
+	 * 
+	 * @return This overflow handling.
+	 */
+	public QueueOverflow<T> timeout(long timeout) {
+		this.timeout = timeout;
+		return this;
+	}
+
+	/**
+	 * @param sampleRate The number of new elements among which one is added with
+	 *                   the SAMPLE policy.
+	 * 
+	 * @return This overflow handling.
+	 * 
+	 * @throws IllegalArgumentException If the sample rate is not positive.
+	 */
+	public QueueOverflow<T> sampleRate(int sampleRate) {
+		if (sampleRate <= 0)
+			throw new IllegalArgumentException("The sample rate must be positive");
+
+		this.sampleRate = sampleRate;
+		return this;
+	}
+
+	/**
+	 * @param spill The consumer of the new elements with the SPILL policy.
+	 * 
+	 * @return This overflow handling.
+	 */
+	public QueueOverflow<T> spill(Consumer<? super T> spill) {
+		this.spill = spill;
+		return this;
+	}
+
+	/**
+	 * @return The behavior of the queue when an element is added while it is full.
+	 */
+	public EQueueOverflow getPolicy() {
+		return policy;
+	}
+
+	/**
+	 * @return The number of elements that have been discarded.
+	 */
+	public long getDropped() {
+		return dropped.sum();
+	}
+
+	/**
+	 * @return The number of times a thread has waited for room in the queue.
+	 */
+	public long getBlocked() {
+		return blocked.sum();
+	}
+
+	/**
+	 * @return The number of elements that have been given to the spill consumer.
+	 */
+	public long getSpilled() {
+		return spilled.sum();
+	}
+
+	/**
+	 * Discards the oldest elements of the queue until the given element can be
+	 * added.
+	 * 
+	 * @param queue The queue in which the element is added.
+	 * @param e     The element to add.
+	 * 
+	 * @return True.
+	 */
+	private boolean replaceOldest(BlockingQueue<T> queue, T e) {
+		do {
+			if (queue.poll() != null)
+				dropped.increment();
+		} while (!queue.offer(e));
+		return true;
+	}
+}
@@ -127,6 +127,26 @@ public class ReadableByteWrapper {
 		return next(wrapper -> wrapper.getDouble(position), 8);
 	}
 
+	/**
+	 * Reads the next variable length bytes, composing them into a long value as
+	 * written by {@link ByteWrapper#putVarLong(long)}, and increment the current
+	 * position by the number of read bytes.
+	 * 
+	 * @return The long value at the current position.
+	 * 
+	 * @throws IllegalStateException If the value is encoded on more than 10 bytes.
+	 */
+	public long nextVarLong() {
+		long value = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			byte b = next();
+			value |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0)
+				return value;
+		}
+		throw new IllegalStateException("Malformed variable length long value");
+	}
+
 	/**
 	 * Read the next n bytes, with n equals length, at the given index and creates a
 	 * string based on the corresponding bytes array, and then increment the current
@@ -0,0 +1,212 @@
+package fr.pederobien.utils.event;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import fr.pederobien.utils.ReadableByteWrapper;
+import fr.pederobien.utils.event.Logger.ELogLevel;
+
+public class BinaryLogDecoder {
+	private Path path;
+	private boolean timeStamp, colorized;
+
+	/**
+	 * Creates a decoder that renders as text the logs written by a
+	 * {@link BinaryLogSink}, as they would have been displayed by the
+	 * {@link Logger}, one log per line.
+	 * 
+	 * @param path The path of the binary log file.
+	 */
+	public BinaryLogDecoder(Path path) {
+		this.path = path;
+		timeStamp = true;
+	}
+
+	/**
+	 * Set if the time stamp of the logs should be displayed, when it has been
+	 * recorded.
+	 * 
+	 * @param timeStamp True in order to display the time stamp, false otherwise.
+	 * 
+	 * @return This decoder.
+	 */
+	public BinaryLogDecoder timeStamp(boolean timeStamp) {
+		this.timeStamp = timeStamp;
+		return this;
+	}
+
+	/**
+	 * Set if the logs shall be displayed in color depending on their level.
+	 * 
+	 * @param colorized True to display with color, false otherwise.
+	 * 
+	 * @return This decoder.
+	 */
+	public BinaryLogDecoder colorized(boolean colorized) {
+		this.colorized = colorized;
+		return this;
+	}
+
+	/**
+	 * Renders the logs of the file. A record truncated at the end of the file, for
+	 * instance because the application has stopped while writing it, is ignored.
+	 * 
+	 * @param output The output to which the logs are appended.
+	 * 
+	 * @return The number of rendered logs.
+	 * 
+	 * @throws IOException If the file cannot be read, if it is not a binary log
+	 *                     file or if the output cannot be written.
+	 */
+	public long decode(Appendable output) throws IOException {
+		byte[] bytes = Files.readAllBytes(path);
+		if (bytes.length < BinaryLogSink.MAGIC.length || !Arrays.equals(bytes, 0, BinaryLogSink.MAGIC.length, BinaryLogSink.MAGIC, 0,
+				BinaryLogSink.MAGIC.length))
+			throw new IOException(String.format("%s is not a binary log file", path));
+
+		ReadableByteWrapper wrapper = ReadableByteWrapper.wrap(bytes);
+		wrapper.setPosition(BinaryLogSink.MAGIC.length);
+
+		List<String> dictionary = new ArrayList<String>();
+		dictionary.add(null);
+
+		long time = 0, count = 0;
+		ELogLevel[] levels = ELogLevel.values();
+
+		while (wrapper.getPosition() < bytes.length) {
+			int length;
+			try {
+				length = (int) wrapper.nextVarLong();
+			} catch (IndexOutOfBoundsException e) {
+				break;
+			}
+
+			int end = wrapper.getPosition() + length;
+			if (length < 0 || end > bytes.length)
+				break;
+
+			String text;
+			byte kind = wrapper.next();
+			switch (kind) {
+			case BinaryLogSink.DEFINE:
+				int id = (int) wrapper.nextVarLong();
+				while (dictionary.size() <= id)
+					dictionary.add(null);
+				dictionary.set(id, nextString(wrapper));
+				wrapper.setPosition(end);
+				continue;
+			case BinaryLogSink.LOG:
+				ELogLevel level = levels[wrapper.next()];
+				long logTime = wrapper.next() == 0 ? Logger.NO_TIME : (time += BinaryLogSink.unzigzag(wrapper.nextVarLong()));
+				String source = (String) nextArgument(wrapper, dictionary);
+				String format = (String) nextArgument(wrapper, dictionary);
+
+				int argc = (int) wrapper.nextVarLong();
+				Object[] args = argc == 0 ? null : new Object[argc - 1];
+				for (int i = 0; args != null && i < args.length; i++)
+					args[i] = nextArgument(wrapper, dictionary);
+
+				text = Logger.decorate(Logger.render(level, source, format, args, colorized), timeStamp ? logTime : Logger.NO_TIME, true);
+				break;
+			case BinaryLogSink.TEXT:
+				long textTime = wrapper.next() == 0 ? Logger.NO_TIME : (time += BinaryLogSink.unzigzag(wrapper.nextVarLong()));
+				text = Logger.decorate(nextString(wrapper), timeStamp ? textTime : Logger.NO_TIME, true);
+				break;
+			default:
+				// Unknown record, written by a newer version
+				wrapper.setPosition(end);
+				continue;
+			}
+
+			wrapper.setPosition(end);
+			output.append(text);
+			count++;
+		}
+		return count;
+	}
+
+	/**
+	 * Reads the next argument of a log.
+	 * 
+	 * @param wrapper    The wrapper from which the argument is read.
+	 * @param dictionary The strings defined so far.
+	 * 
+	 * @return The argument.
+	 * 
+	 * @throws IOException If the kind of the argument is unknown.
+	 */
+	private Object nextArgument(ReadableByteWrapper wrapper, List<String> dictionary) throws IOException {
+		byte kind = wrapper.next();
+		switch (kind) {
+		case BinaryLogSink.NULL:
+			return null;
+		case BinaryLogSink.BYTE:
+			return (byte) BinaryLogSink.unzigzag(wrapper.nextVarLong());
+		case BinaryLogSink.SHORT:
+			return (short) BinaryLogSink.unzigzag(wrapper.nextVarLong());
+		case BinaryLogSink.INTEGER:
+			return (int) BinaryLogSink.unzigzag(wrapper.nextVarLong());
+		case BinaryLogSink.LONG:
+			return BinaryLogSink.unzigzag(wrapper.nextVarLong());
+		case BinaryLogSink.FLOAT:
+			return wrapper.nextFloat();
+		case BinaryLogSink.DOUBLE:
+			return wrapper.nextDouble();
+		case BinaryLogSink.BOOLEAN:
+			return wrapper.next() != 0;
+		case BinaryLogSink.CHARACTER:
+			return (char) wrapper.nextVarLong();
+		case BinaryLogSink.DEFINED:
+			return dictionary.get((int) wrapper.nextVarLong());
+		case BinaryLogSink.STRING:
+			return nextString(wrapper);
+		case BinaryLogSink.BIG_INTEGER:
+			return new BigInteger(nextString(wrapper));
+		case BinaryLogSink.BIG_DECIMAL:
+			return new BigDecimal(nextString(wrapper));
+		default:
+			throw new IOException(String.format("Unknown argument kind %s in %s", kind, path));
+		}
+	}
+
+	/**
+	 * Reads the next string encoded in UTF-8, preceded by its length.
+	 * 
+	 * @param wrapper The wrapper from which the string is read.
+	 * 
+	 * @return The string.
+	 */
+	private String nextString(ReadableByteWrapper wrapper) {
+		// Reading 0 bytes with the wrapper would read until the end of the file
+		int length = (int) wrapper.nextVarLong();
+		return length == 0 ? "" : new String(wrapper.next(length), StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Renders the binary log file given as first argument on the standard output.
+	 * 
+	 * @param args The path of the binary log file.
+	 * 
+	 * @throws IOException If the file cannot be decoded.
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length != 1) {
+			System.err.println("Usage: BinaryLogDecoder <file>");
+			return;
+		}
+
+		Writer writer = new OutputStreamWriter(System.out, System.out.charset());
+		new BinaryLogDecoder(Paths.get(args[0])).decode(writer);
+		writer.flush();
+	}
+}
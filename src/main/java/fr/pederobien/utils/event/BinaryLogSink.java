@@ -0,0 +1,335 @@
+package fr.pederobien.utils.event;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+import fr.pederobien.utils.ByteWrapper;
+import fr.pederobien.utils.event.Logger.ELogLevel;
+
+public class BinaryLogSink implements ILogSink {
+	/**
+	 * The bytes at the beginning of a binary log file.
+	 */
+	static final byte[] MAGIC = { 'P', 'L', 'O', 'G', 1 };
+
+	// Kinds of record
+	static final byte DEFINE = 0, LOG = 1, TEXT = 2;
+
+	// Kinds of argument
+	static final byte NULL = 0, BYTE = 1, SHORT = 2, INTEGER = 3, LONG = 4, FLOAT = 5, DOUBLE = 6, BOOLEAN = 7, CHARACTER = 8, DEFINED = 9,
+			STRING = 10, BIG_INTEGER = 11, BIG_DECIMAL = 12;
+
+	/**
+	 * The maximum number of entries in the dictionary.
+	 */
+	private static final int MAX_DEFINITIONS = 65536;
+
+	private FileChannel channel;
+	private ByteBuffer buffer;
+	private Map<String, Integer> dictionary;
+	private long lastTime;
+
+	/**
+	 * Creates a sink that writes the logs of the {@link Logger} in a compact binary
+	 * format instead of text. The format strings and the source names are written
+	 * once in a dictionary and then referenced by their identifier, the numbers are written as variable length numbers and
+	 * the time stamps as the difference with the previous one. The messages are
+	 * not formatted, unless an argument is neither a string, a number, a boolean
+	 * nor a character, the file is rendered later by a {@link BinaryLogDecoder}. An
+	 * existing file is overwritten.
+	 * 
+	 * @param path       The path of the file.
+	 * @param bufferSize The size, in bytes, of the buffer in which the records are
+	 *                   written before being sent to the file.
+	 * 
+	 * @throws IOException If the file cannot be created.
+	 */
+	public BinaryLogSink(Path path, int bufferSize) throws IOException {
+		StandardOpenOption[] options = { StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE };
+		channel = FileChannel.open(path, options);
+		buffer = ByteBuffer.allocateDirect(bufferSize);
+		dictionary = new HashMap<String, Integer>();
+
+		buffer.put(MAGIC);
+	}
+
+	/**
+	 * Writes the given text as a record without format nor time stamp.
+	 * 
+	 * @param text The text to write.
+	 * 
+	 * @throws IOException If an I/O error occurs.
+	 */
+	@Override
+	public synchronized void write(CharSequence text) throws IOException {
+		write(Logger.NO_TIME, text.toString());
+	}
+
+	@Override
+	public synchronized void flush() throws IOException {
+		drain();
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		drain();
+		channel.close();
+	}
+
+	/**
+	 * Writes a record for a message that is not a log of the {@link Logger}.
+	 * 
+	 * @param time The time, in microseconds since the epoch, at which the message
+	 *             has been written, or NO_TIME.
+	 * @param text The text of the message.
+	 * 
+	 * @return The number of written bytes.
+	 * 
+	 * @throws IOException If an I/O error occurs.
+	 */
+	synchronized int write(long time, String text) throws IOException {
+		ByteWrapper wrapper = ByteWrapper.create().put(TEXT);
+		putTime(wrapper, time);
+		putString(wrapper, text);
+		return append(wrapper.get());
+	}
+
+	/**
+	 * Writes a record for a log of the {@link Logger}.
+	 * 
+	 * @param time   The time, in microseconds since the epoch, at which the log has
+	 *               been written, or NO_TIME.
+	 * @param level  The level of the log.
+	 * @param source The name of the source of the log, or null.
+	 * @param format The formatter of the message.
+	 * @param args   The arguments of the message.
+	 * 
+	 * @return The number of written bytes.
+	 * 
+	 * @throws IOException If an I/O error occurs.
+	 */
+	synchronized int write(long time, ELogLevel level, String source, String format, Object[] args) throws IOException {
+		// Arguments whose formatting depends on their type are formatted immediately
+		if (!isEncodable(args)) {
+			args = new Object[] { Logger.renderBody(null, format, args) };
+			format = "%s";
+		}
+
+		ByteWrapper wrapper = ByteWrapper.create().put(LOG).put((byte) level.ordinal());
+		putTime(wrapper, time);
+
+		// Definitions are written before the record that references them
+		int written = putReference(wrapper, source);
+		written += putReference(wrapper, format);
+
+		wrapper.putVarLong(args == null ? 0 : args.length + 1);
+		for (int i = 0; args != null && i < args.length; i++)
+			putArgument(wrapper, args[i]);
+
+		return written + append(wrapper.get());
+	}
+
+	/**
+	 * Writes the given format or source name as a reference to the dictionary, or
+	 * inline if the dictionary is full.
+	 * 
+	 * @param wrapper The wrapper in which the string is written.
+	 * @param string  The string to write, may be null.
+	 * 
+	 * @return The number of bytes of the definition written for the string.
+	 * 
+	 * @throws IOException If an I/O error occurs.
+	 */
+	private int putReference(ByteWrapper wrapper, String string) throws IOException {
+		if (string == null) {
+			wrapper.put(NULL);
+			return 0;
+		}
+
+		int id = define(string);
+		if (id == 0) {
+			putString(wrapper.put(STRING), string);
+			return 0;
+		}
+
+		wrapper.put(DEFINED).putVarLong(Math.abs(id));
+		return id < 0 ? append(definition(-id, string)) : 0;
+	}
+
+	/**
+	 * @param args The arguments of a message.
+	 * 
+	 * @return True if each argument can be encoded and decoded without changing
+	 *         the formatted message.
+	 */
+	private boolean isEncodable(Object[] args) {
+		if (args == null)
+			return true;
+
+		for (Object arg : args) {
+			if (!(arg == null || arg instanceof String || arg instanceof Integer || arg instanceof Long || arg instanceof Double
+					|| arg instanceof Float || arg instanceof Short || arg instanceof Byte || arg instanceof Boolean || arg instanceof Character
+					|| arg instanceof BigInteger || arg instanceof BigDecimal))
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Writes the given argument, preceded by its kind.
+	 * 
+	 * @param wrapper  The wrapper in which the argument is written.
+	 * @param argument The argument to write, whose type is encodable.
+	 */
+	private void putArgument(ByteWrapper wrapper, Object argument) {
+		if (argument == null)
+			wrapper.put(NULL);
+		else if (argument instanceof Integer)
+			wrapper.put(INTEGER).putVarLong(zigzag((Integer) argument));
+		else if (argument instanceof Long)
+			wrapper.put(LONG).putVarLong(zigzag((Long) argument));
+		else if (argument instanceof Double)
+			wrapper.put(DOUBLE).putDouble((Double) argument);
+		else if (argument instanceof Float)
+			wrapper.put(FLOAT).putFloat((Float) argument);
+		else if (argument instanceof Short)
+			wrapper.put(SHORT).putVarLong(zigzag((Short) argument));
+		else if (argument instanceof Byte)
+			wrapper.put(BYTE).putVarLong(zigzag((Byte) argument));
+		else if (argument instanceof Boolean)
+			wrapper.put(BOOLEAN).put((byte) ((Boolean) argument ? 1 : 0));
+		else if (argument instanceof Character)
+			wrapper.put(CHARACTER).putVarLong((Character) argument);
+		else if (argument instanceof BigInteger)
+			putString(wrapper.put(BIG_INTEGER), argument.toString());
+		else if (argument instanceof BigDecimal)
+			putString(wrapper.put(BIG_DECIMAL), argument.toString());
+		else
+			putString(wrapper.put(STRING), (String) argument);
+	}
+
+	/**
+	 * Get the identifier of the given string in the dictionary, adding it if
+	 * necessary.
+	 * 
+	 * @param string The string to look for.
+	 * 
+	 * @return The identifier of the string, negated if the string has just been
+	 *         added, or 0 if the dictionary is full.
+	 */
+	private int define(String string) {
+		Integer id = dictionary.get(string);
+		if (id != null)
+			return id;
+
+		if (dictionary.size() >= MAX_DEFINITIONS)
+			return 0;
+
+		int created = dictionary.size() + 1;
+		dictionary.put(string, created);
+		return -created;
+	}
+
+	/**
+	 * Creates the record that adds a string to the dictionary.
+	 * 
+	 * @param id     The identifier of the string.
+	 * @param string The string.
+	 * 
+	 * @return The bytes of the record.
+	 */
+	private byte[] definition(int id, String string) {
+		ByteWrapper wrapper = ByteWrapper.create().put(DEFINE).putVarLong(id);
+		putString(wrapper, string);
+		return wrapper.get();
+	}
+
+	/**
+	 * Writes the given time as the difference with the previous written time.
+	 * 
+	 * @param wrapper The wrapper in which the time is written.
+	 * @param time    The time to write, or NO_TIME.
+	 */
+	private void putTime(ByteWrapper wrapper, long time) {
+		if (time == Logger.NO_TIME) {
+			wrapper.put((byte) 0);
+			return;
+		}
+
+		wrapper.put((byte) 1).putVarLong(zigzag(time - lastTime));
+		lastTime = time;
+	}
+
+	/**
+	 * Writes the given string encoded in UTF-8, preceded by its length.
+	 * 
+	 * @param wrapper The wrapper in which the string is written.
+	 * @param string  The string to write.
+	 */
+	private void putString(ByteWrapper wrapper, String string) {
+		byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+		wrapper.putVarLong(bytes.length).put(bytes);
+	}
+
+	/**
+	 * Appends a record to the buffer, preceded by its length.
+	 * 
+	 * @param record The bytes of the record.
+	 * 
+	 * @return The number of written bytes.
+	 * 
+	 * @throws IOException If an I/O error occurs.
+	 */
+	private int append(byte[] record) throws IOException {
+		byte[] frame = ByteWrapper.create().putVarLong(record.length).put(record).get();
+		if (buffer.remaining() < frame.length)
+			drain();
+
+		if (buffer.remaining() < frame.length) {
+			ByteBuffer wrapped = ByteBuffer.wrap(frame);
+			while (wrapped.hasRemaining())
+				channel.write(wrapped);
+		} else
+			buffer.put(frame);
+		return frame.length;
+	}
+
+	/**
+	 * Writes the content of the buffer to the file and clears the buffer.
+	 * 
+	 * @throws IOException If an I/O error occurs.
+	 */
+	private void drain() throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining())
+			channel.write(buffer);
+		buffer.clear();
+	}
+
+	/**
+	 * @param value A signed value.
+	 * 
+	 * @return The value encoded so that small negative values have a short
+	 *         variable length representation.
+	 */
+	static long zigzag(long value) {
+		return (value << 1) ^ (value >> 63);
+	}
+
+	/**
+	 * @param value A value encoded by {@link #zigzag(long)}.
+	 * 
+	 * @return The decoded signed value.
+	 */
+	static long unzigzag(long value) {
+		return (value >>> 1) ^ -(value & 1);
+	}
+}
@@ -0,0 +1,55 @@
+package fr.pederobien.utils.event;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+public class BlockingWaitStrategy implements IWaitStrategy {
+	private ReentrantLock lock;
+	private Condition signal;
+	private AtomicInteger waiters;
+
+	/**
+	 * Creates a wait strategy that blocks the waiting thread until it is signaled.
+	 * It does not consume CPU while waiting but has the highest latency, since
+	 * signaling a waiting thread requires a lock. The lock is not taken when no
+	 * thread is waiting.
+	 */
+	public BlockingWaitStrategy() {
+		lock = new ReentrantLock();
+		signal = lock.newCondition();
+		waiters = new AtomicInteger();
+	}
+
+	@Override
+	public void waitFor(BooleanSupplier condition) throws InterruptedException {
+		if (condition.getAsBoolean())
+			return;
+
+		lock.lockInterruptibly();
+		waiters.incrementAndGet();
+		try {
+			// The condition is checked after being registered as waiter, so that a
+			// signal cannot be missed
+			while (!condition.getAsBoolean())
+				signal.await();
+		} finally {
+			waiters.decrementAndGet();
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public void signalAll() {
+		if (waiters.get() == 0)
+			return;
+
+		lock.lock();
+		try {
+			signal.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+}
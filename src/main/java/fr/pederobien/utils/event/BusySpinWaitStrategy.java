@@ -0,0 +1,25 @@
+package fr.pederobien.utils.event;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * Wait strategy that spins on the condition. It has the lowest latency but
+ * keeps a core busy, it should only be used when there are more cores than
+ * waiting threads.
+ */
+public class BusySpinWaitStrategy implements IWaitStrategy {
+
+	@Override
+	public void waitFor(BooleanSupplier condition) throws InterruptedException {
+		while (!condition.getAsBoolean()) {
+			if (Thread.interrupted())
+				throw new InterruptedException();
+			Thread.onSpinWait();
+		}
+	}
+
+	@Override
+	public void signalAll() {
+		// Waiting threads are spinning, nothing to do
+	}
+}
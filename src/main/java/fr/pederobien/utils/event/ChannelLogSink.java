@@ -0,0 +1,150 @@
+package fr.pederobien.utils.event;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.function.Supplier;
+
+public class ChannelLogSink implements ILogSink {
+	private WritableByteChannel channel;
+	private CharsetEncoder encoder;
+	private ByteBuffer buffer;
+
+	/**
+	 * Creates a sink that encodes the written texts into one reusable buffer, the
+	 * buffer is written to the channel with a single write when it is full or when
+	 * this sink is flushed.
+	 * 
+	 * @param channel    The channel to which the texts are written.
+	 * @param charset    The charset used to encode the texts.
+	 * @param bufferSize The size, in bytes, of the buffer.
+	 */
+	public ChannelLogSink(WritableByteChannel channel, Charset charset, int bufferSize) {
+		this.channel = channel;
+
+		encoder = charset.newEncoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+		buffer = ByteBuffer.allocate(bufferSize);
+	}
+
+	/**
+	 * Creates a sink that writes the texts to the given stream, using the charset
+	 * of the stream. Closing the sink closes the stream. Unlike the channels
+	 * returned by {@link java.nio.channels.Channels#newChannel(OutputStream)}, the
+	 * stream is not closed when a writing thread is interrupted.
+	 * 
+	 * @param stream     The stream to which the texts are written.
+	 * @param bufferSize The size, in bytes, of the buffer.
+	 */
+	public ChannelLogSink(PrintStream stream, int bufferSize) {
+		this(new StreamChannel(() -> stream), stream.charset(), bufferSize);
+	}
+
+	/**
+	 * Creates a sink that writes the texts to the stream returned by the given
+	 * supplier each time the buffer is written, using the charset of the stream
+	 * returned when the sink is created. For instance, a sink created with
+	 * {@code () -> System.out} follows the changes of {@link System#setOut}.
+	 * 
+	 * @param stream     The supplier of the stream to which the texts are written.
+	 * @param bufferSize The size, in bytes, of the buffer.
+	 * 
+	 * @see #ChannelLogSink(PrintStream, int)
+	 */
+	public ChannelLogSink(Supplier<? extends PrintStream> stream, int bufferSize) {
+		this(new StreamChannel(stream), stream.get().charset(), bufferSize);
+	}
+
+	@Override
+	public synchronized void write(CharSequence text) throws IOException {
+		CharBuffer chars = CharBuffer.wrap(text);
+		encoder.reset();
+
+		CoderResult result;
+		while ((result = encoder.encode(chars, buffer, true)).isOverflow())
+			drain();
+
+		while ((result = encoder.flush(buffer)).isOverflow())
+			drain();
+
+		if (result.isError())
+			result.throwException();
+	}
+
+	@Override
+	public synchronized void flush() throws IOException {
+		drain();
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		drain();
+		channel.close();
+	}
+
+	/**
+	 * Writes the content of the buffer to the channel and clears the buffer.
+	 * 
+	 * @throws IOException If an I/O error occurs.
+	 */
+	private void drain() throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining())
+			channel.write(buffer);
+		buffer.clear();
+	}
+
+	private static class StreamChannel implements WritableByteChannel {
+		private Supplier<? extends OutputStream> stream;
+		private boolean isOpen;
+
+		/**
+		 * Creates a channel that writes to the given stream and that is not closed
+		 * by the interruption of the writing thread.
+		 * 
+		 * @param stream The supplier of the stream to which the bytes are written.
+		 */
+		private StreamChannel(Supplier<? extends OutputStream> stream) {
+			this.stream = stream;
+			isOpen = true;
+		}
+
+		@Override
+		public int write(ByteBuffer source) throws IOException {
+			if (!isOpen)
+				throw new ClosedChannelException();
+
+			OutputStream stream = this.stream.get();
+			int length = source.remaining();
+			if (source.hasArray())
+				stream.write(source.array(), source.arrayOffset() + source.position(), length);
+			else {
+				byte[] bytes = new byte[length];
+				source.duplicate().get(bytes);
+				stream.write(bytes);
+			}
+
+			source.position(source.limit());
+			stream.flush();
+			return length;
+		}
+
+		@Override
+		public boolean isOpen() {
+			return isOpen;
+		}
+
+		@Override
+		public void close() throws IOException {
+			isOpen = false;
+			stream.get().close();
+		}
+	}
+}
@@ -0,0 +1,173 @@
+package fr.pederobien.utils.event;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+import fr.pederobien.utils.event.Logger.ELogLevel;
+
+public class DirectConsoleLogSink implements ILogSink {
+	private static final byte[] NEW_LINE = { '\n' };
+	private static final byte[] EMPTY = {};
+
+	private FileOutputStream output;
+	private CharsetEncoder encoder;
+	private ByteBuffer buffer;
+	private byte[][] prefixes, coloredPrefixes, coloredSuffixes;
+	private StringBuilder timeStamp;
+
+	/**
+	 * Creates a sink that writes the logs encoded in UTF-8 directly on the file
+	 * descriptor of the standard output, bypassing {@link System#out}. The logs
+	 * are encoded into one reusable buffer, written with a single write when it
+	 * is full or when this sink is flushed. The writes are not interruptible, so
+	 * that the interruption of a writing thread does not close the standard
+	 * output. The level prefixes and the
+	 * ANSI color sequences are encoded once, so that a colored log costs as much
+	 * as a plain one.
+	 * 
+	 * @param bufferSize The size, in bytes, of the buffer.
+	 */
+	public DirectConsoleLogSink(int bufferSize) {
+		output = new FileOutputStream(FileDescriptor.out);
+		encoder = StandardCharsets.UTF_8.newEncoder().onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		buffer = ByteBuffer.allocate(bufferSize);
+		timeStamp = new StringBuilder();
+
+		ELogLevel[] levels = ELogLevel.values();
+		prefixes = new byte[levels.length][];
+		coloredPrefixes = new byte[levels.length][];
+		coloredSuffixes = new byte[levels.length][];
+		for (ELogLevel level : levels) {
+			String prefix = level == ELogLevel.NONE ? "" : String.format("[%s] ", level.name());
+
+			// Splitting the colored text around the message, as done by getInColor
+			String[] colored = level.getInColor("\u0000").split("\u0000", 2);
+			prefixes[level.ordinal()] = prefix.getBytes(StandardCharsets.UTF_8);
+			coloredPrefixes[level.ordinal()] = (colored[0] + prefix).getBytes(StandardCharsets.UTF_8);
+			coloredSuffixes[level.ordinal()] = colored[1].getBytes(StandardCharsets.UTF_8);
+		}
+	}
+
+	@Override
+	public synchronized void write(CharSequence text) throws IOException {
+		encode(text);
+	}
+
+	@Override
+	public synchronized void flush() throws IOException {
+		drain();
+	}
+
+	/**
+	 * Write the pending logs. The standard output is not closed.
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		drain();
+	}
+
+	/**
+	 * Writes a log of the {@link Logger}.
+	 * 
+	 * @param time      The time, in microseconds since the epoch, at which the log
+	 *                  has been written, or NO_TIME.
+	 * @param level     The level of the log.
+	 * @param colorized True in order to display the log in the color of its level.
+	 * @param body      The message of the log, without its level.
+	 * @param newLine   True in order to display a new line after the log.
+	 * 
+	 * @return The number of written bytes.
+	 * 
+	 * @throws IOException If an I/O error occurs.
+	 */
+	synchronized int write(long time, ELogLevel level, boolean colorized, String body, boolean newLine) throws IOException {
+		int written = 0;
+
+		if (time != Logger.NO_TIME) {
+			timeStamp.setLength(0);
+			timeStamp.append('[');
+			Logger.appendTime(timeStamp, time);
+			timeStamp.append("] ");
+			written += encode(timeStamp);
+		}
+
+		boolean isColored = colorized && level != ELogLevel.NONE;
+		written += put(isColored ? coloredPrefixes[level.ordinal()] : prefixes[level.ordinal()]);
+		written += encode(body);
+		written += put(isColored ? coloredSuffixes[level.ordinal()] : EMPTY);
+		written += put(newLine ? NEW_LINE : EMPTY);
+		return written;
+	}
+
+	/**
+	 * Encodes the given text into the buffer, writing the buffer to the standard
+	 * output each time it is full.
+	 * 
+	 * @param text The text to encode.
+	 * 
+	 * @return The number of bytes written to the buffer.
+	 * 
+	 * @throws IOException If an I/O error occurs.
+	 */
+	private int encode(CharSequence text) throws IOException {
+		int written = 0, start = buffer.position();
+		CharBuffer chars = CharBuffer.wrap(text);
+		encoder.reset();
+
+		CoderResult result;
+		while ((result = encoder.encode(chars, buffer, true)).isOverflow()) {
+			written += buffer.position() - start;
+			drain();
+			start = 0;
+		}
+
+		while ((result = encoder.flush(buffer)).isOverflow()) {
+			written += buffer.position() - start;
+			drain();
+			start = 0;
+		}
+
+		if (result.isError())
+			result.throwException();
+		return written + buffer.position() - start;
+	}
+
+	/**
+	 * Copies the given bytes into the buffer.
+	 * 
+	 * @param bytes The bytes to copy.
+	 * 
+	 * @return The number of copied bytes.
+	 * 
+	 * @throws IOException If an I/O error occurs.
+	 */
+	private int put(byte[] bytes) throws IOException {
+		if (buffer.remaining() < bytes.length)
+			drain();
+
+		if (buffer.remaining() < bytes.length)
+			output.write(bytes);
+		else
+			buffer.put(bytes);
+		return bytes.length;
+	}
+
+	/**
+	 * Writes the content of the buffer to the standard output and clears the
+	 * buffer.
+	 * 
+	 * @throws IOException If an I/O error occurs.
+	 */
+	private void drain() throws IOException {
+		output.write(buffer.array(), 0, buffer.position());
+		buffer.clear();
+	}
+}
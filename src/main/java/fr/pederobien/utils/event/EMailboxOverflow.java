@@ -0,0 +1,27 @@
+package fr.pederobien.utils.event;
+
+/**
+ * Represents the behavior of a listener mailbox when an event is posted while
+ * the mailbox is full.
+ */
+public enum EMailboxOverflow {
+
+	/**
+	 * The thread that publishes the event waits until the listener has consumed
+	 * at least one pending event. If the event is published by a handler of the
+	 * listener, the oldest pending event is discarded instead.
+	 */
+	BLOCK,
+
+	/**
+	 * The oldest pending event is discarded in order to make room for the new one.
+	 */
+	DROP_OLDEST,
+
+	/**
+	 * The most recent pending event of the same class and of the same routing key,
+	 * for the same event handler, is discarded and the new one is appended. If
+	 * there is no such pending event, the oldest pending event is discarded.
+	 */
+	COALESCE;
+}
@@ -1,7 +1,6 @@
 package fr.pederobien.utils.event;
 
 public abstract class Event {
-
 	/**
 	 * Convenience method for providing a user-friendly identifier. By default, it
 	 * is the event's class's {@linkplain Class#getSimpleName() simple name}.
@@ -0,0 +1,476 @@
+package fr.pederobien.utils.event;
+
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import fr.pederobien.utils.ByteWrapper;
+import fr.pederobien.utils.Disposable;
+import fr.pederobien.utils.IDisposable;
+import fr.pederobien.utils.ReadableByteWrapper;
+
+public class EventBridge implements IEventListener {
+	private static final int BUFFER_SIZE = 64 * 1024;
+	private static final int MAX_FRAME_SIZE = 64 * 1024 * 1024;
+
+	private IEventBus bus;
+	private EventCodecs codecs;
+	private int maxPendingBytes;
+	private Selector selector;
+	private Thread selectorThread;
+	private Queue<Runnable> tasks;
+	private List<Peer> peers;
+	private List<Path> paths;
+	private Map<Event, Peer> origins;
+	private IDisposable disposable;
+
+	/**
+	 * Creates a bridge that forwards the events called on the given bus to the
+	 * other processes of the host, and calls on the given bus the events received
+	 * from them. Only the events whose class has a codec are forwarded, they are
+	 * written as their length, their type identifier and the data written by their
+	 * codec. Connections are Unix domain sockets handled by one thread with non
+	 * blocking channels: small events queued meanwhile are sent in a single write.
+	 * When too many bytes are waiting to be sent to a peer, publishers wait for
+	 * the peer to catch up. An event received from a peer is forwarded to the
+	 * other peers, so that processes connected to the same listening process
+	 * receive the events of each other. The bridge must be started in order to
+	 * forward events.
+	 * 
+	 * @param bus             The bus whose events are forwarded and on which the
+	 *                        received events are called.
+	 * @param codecs          The codecs of the forwarded events, the same
+	 *                        registrations must be used by all processes.
+	 * @param maxPendingBytes The maximum number of bytes waiting to be sent to a
+	 *                        peer before publishers are blocked.
+	 * 
+	 * @throws IOException If the selector cannot be opened.
+	 */
+	public EventBridge(IEventBus bus, EventCodecs codecs, int maxPendingBytes) throws IOException {
+		if (maxPendingBytes <= 0)
+			throw new IllegalArgumentException("The maximum number of pending bytes must be positive");
+
+		this.bus = bus;
+		this.codecs = codecs;
+		this.maxPendingBytes = maxPendingBytes;
+
+		selector = Selector.open();
+		tasks = new ConcurrentLinkedQueue<Runnable>();
+		peers = new CopyOnWriteArrayList<Peer>();
+		paths = new CopyOnWriteArrayList<Path>();
+		origins = Collections.synchronizedMap(new IdentityHashMap<Event, Peer>());
+		disposable = new Disposable();
+
+		selectorThread = new Thread(() -> internalStart(), "EventBridge");
+		selectorThread.setDaemon(true);
+	}
+
+	/**
+	 * Creates a bridge for the default bus of the {@link EventManager}, with 1MB of
+	 * pending bytes per peer.
+	 * 
+	 * @param codecs The codecs of the forwarded events.
+	 * 
+	 * @throws IOException If the selector cannot be opened.
+	 * 
+	 * @see #EventBridge(IEventBus, EventCodecs, int)
+	 */
+	public EventBridge(EventCodecs codecs) throws IOException {
+		this(EventManager.getDefault(), codecs, 1024 * 1024);
+	}
+
+	/**
+	 * Start the underlying thread and forward the events called on the bus.
+	 */
+	public synchronized void start() {
+		disposable.checkDisposed();
+		selectorThread.start();
+		bus.registerListener(this);
+	}
+
+	/**
+	 * Accept the connections of other processes on the given socket file. The
+	 * file is deleted when this bridge is disposed.
+	 * 
+	 * @param path The path of the socket file, it must not exist.
+	 * 
+	 * @throws IOException If the socket cannot be bound.
+	 */
+	public void listen(Path path) throws IOException {
+		disposable.checkDisposed();
+
+		ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+		server.bind(UnixDomainSocketAddress.of(path));
+		paths.add(path);
+		server.configureBlocking(false);
+		execute(() -> {
+			try {
+				server.register(selector, SelectionKey.OP_ACCEPT);
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		});
+	}
+
+	/**
+	 * Connect to the process listening on the given socket file.
+	 * 
+	 * @param path The path of the socket file.
+	 * 
+	 * @throws IOException If the connection cannot be established.
+	 */
+	public void connect(Path path) throws IOException {
+		disposable.checkDisposed();
+
+		SocketChannel channel = SocketChannel.open(UnixDomainSocketAddress.of(path));
+		channel.configureBlocking(false);
+		execute(() -> register(channel));
+	}
+
+	/**
+	 * @return The number of connected processes.
+	 */
+	public int getPeerCount() {
+		return peers.size();
+	}
+
+	/**
+	 * Dispose this bridge. The connections are closed, the socket files are
+	 * deleted and the events are not forwarded anymore, this object is no more
+	 * reusable.
+	 */
+	public void dispose() {
+		synchronized (this) {
+			if (!disposable.dispose())
+				return;
+
+			// The channels are closed by the underlying thread once it is woken up
+			if (selectorThread.getState() != Thread.State.NEW) {
+				bus.unregisterListener(this);
+				selector.wakeup();
+				return;
+			}
+		}
+
+		runTasks();
+		close();
+	}
+
+	@EventHandler(priority = EventPriority.LOWEST)
+	private void onEventCalled(EventCalledEvent event) {
+		Peer origin = origins.remove(event.getEvent());
+		if (peers.isEmpty())
+			return;
+
+		EventCodecs.Entry<?> entry = codecs.get(event.getEvent().getClass());
+		if (entry == null)
+			return;
+
+		ByteWrapper wrapper = ByteWrapper.create();
+		wrapper.putVarLong(entry.getTypeId());
+		entry.encode(event.getEvent(), wrapper);
+		byte[] frame = ByteWrapper.create().putInt(wrapper.get().length).put(wrapper.get()).get();
+
+		// Do not send back received events to the peer they come from
+		for (Peer peer : peers)
+			if (peer != origin)
+				peer.send(frame);
+	}
+
+	private void execute(Runnable task) {
+		tasks.add(task);
+		selector.wakeup();
+	}
+
+	private void register(SocketChannel channel) {
+		try {
+			Peer peer = new Peer(channel);
+			peer.key = channel.register(selector, SelectionKey.OP_READ, peer);
+			peers.add(peer);
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	private void internalStart() {
+		while (!disposable.isDisposed()) {
+			try {
+				selector.select();
+				runTasks();
+
+				for (SelectionKey key : selector.selectedKeys()) {
+					if (!key.isValid())
+						continue;
+
+					if (key.isAcceptable()) {
+						SocketChannel channel = ((ServerSocketChannel) key.channel()).accept();
+						if (channel != null) {
+							channel.configureBlocking(false);
+							register(channel);
+						}
+						continue;
+					}
+
+					Peer peer = (Peer) key.attachment();
+					try {
+						if (key.isReadable())
+							peer.read();
+						if (key.isValid() && key.isWritable())
+							peer.write();
+					} catch (IOException e) {
+						peer.close();
+					}
+				}
+				selector.selectedKeys().clear();
+			} catch (Exception e) {
+				e.printStackTrace();
+			}
+		}
+
+		close();
+	}
+
+	private void runTasks() {
+		Runnable task;
+		while ((task = tasks.poll()) != null)
+			task.run();
+	}
+
+	/**
+	 * Close the connections and the listening channels, and delete the socket
+	 * files.
+	 */
+	private void close() {
+		for (Peer peer : peers)
+			peer.close();
+		origins.clear();
+
+		try {
+			for (SelectionKey key : selector.keys())
+				key.channel().close();
+			selector.close();
+
+			for (Path path : paths)
+				Files.deleteIfExists(path);
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	private class Peer {
+		private SocketChannel channel;
+		private SelectionKey key;
+		private ByteBuffer input, output;
+		private Deque<byte[]> frames;
+		private int pendingBytes;
+		private ReentrantLock lock;
+		private Condition notFull;
+		private AtomicBoolean writeScheduled;
+		private boolean closed;
+
+		/**
+		 * Creates a connection to another process.
+		 * 
+		 * @param channel The connected channel.
+		 */
+		private Peer(SocketChannel channel) {
+			this.channel = channel;
+
+			input = ByteBuffer.allocate(BUFFER_SIZE);
+			output = ByteBuffer.allocateDirect(BUFFER_SIZE);
+			output.flip();
+
+			frames = new ArrayDeque<byte[]>();
+			lock = new ReentrantLock();
+			notFull = lock.newCondition();
+			writeScheduled = new AtomicBoolean(false);
+		}
+
+		/**
+		 * Appends the given frame to the frames waiting to be sent. If too many bytes
+		 * are pending, the current thread waits for the peer to catch up, unless it is
+		 * the thread of the bridge.
+		 * 
+		 * @param frame The frame to send.
+		 */
+		private void send(byte[] frame) {
+			lock.lock();
+			try {
+				while (pendingBytes > maxPendingBytes && !closed && Thread.currentThread() != selectorThread)
+					notFull.await();
+
+				if (closed)
+					return;
+
+				frames.addLast(frame);
+				pendingBytes += frame.length;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			} finally {
+				lock.unlock();
+			}
+
+			if (writeScheduled.compareAndSet(false, true))
+				execute(() -> {
+					if (key.isValid())
+						key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+				});
+		}
+
+		/**
+		 * Send the pending frames, the small frames are gathered in order to be sent in
+		 * a single write.
+		 * 
+		 * @throws IOException If an I/O error occurs.
+		 */
+		private void write() throws IOException {
+			while (true) {
+				if (!output.hasRemaining() && !fill())
+					break;
+
+				channel.write(output);
+
+				// The socket buffer is full, waiting for the channel to be writable
+				if (output.hasRemaining())
+					return;
+			}
+
+			key.interestOps(SelectionKey.OP_READ);
+			writeScheduled.set(false);
+
+			// A frame may have been added before the flag was cleared
+			if (hasFrames() && writeScheduled.compareAndSet(false, true))
+				key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+		}
+
+		/**
+		 * Copy as many pending frames as possible in the output buffer.
+		 * 
+		 * @return True if at least one byte has been copied.
+		 */
+		private boolean fill() {
+			output.clear();
+			lock.lock();
+			try {
+				byte[] frame;
+				while ((frame = frames.peekFirst()) != null) {
+					// A frame bigger than the buffer is sent alone
+					if (frame.length > output.capacity() && output.position() == 0) {
+						output = ByteBuffer.allocateDirect(frame.length);
+					} else if (frame.length > output.remaining())
+						break;
+
+					output.put(frames.pollFirst());
+					pendingBytes -= frame.length;
+				}
+				notFull.signalAll();
+			} finally {
+				lock.unlock();
+			}
+
+			output.flip();
+			return output.hasRemaining();
+		}
+
+		private boolean hasFrames() {
+			lock.lock();
+			try {
+				return !frames.isEmpty();
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		/**
+		 * Read the available bytes and call the received events on the bus.
+		 * 
+		 * @throws IOException If an I/O error occurs, if the peer has closed the
+		 *                     connection or if it has sent an invalid frame.
+		 */
+		private void read() throws IOException {
+			if (channel.read(input) < 0)
+				throw new IOException("Connection closed by the peer");
+
+			input.flip();
+			while (input.remaining() >= Integer.BYTES) {
+				int length = input.getInt(input.position());
+				if (length <= 0 || length > MAX_FRAME_SIZE)
+					throw new IOException(String.format("Invalid frame length %s", length));
+
+				if (input.remaining() < Integer.BYTES + length) {
+					// The frame does not fit in the buffer
+					if (Integer.BYTES + length > input.capacity()) {
+						ByteBuffer bigger = ByteBuffer.allocate(Integer.BYTES + length);
+						bigger.put(input);
+						input = bigger;
+						return;
+					}
+					break;
+				}
+
+				input.getInt();
+				byte[] record = new byte[length];
+				input.get(record);
+				dispatch(record);
+			}
+			input.compact();
+		}
+
+		private void dispatch(byte[] record) throws IOException {
+			Event event;
+			try {
+				ReadableByteWrapper wrapper = ReadableByteWrapper.wrap(record);
+				EventCodecs.Entry<?> entry = codecs.get((int) wrapper.nextVarLong());
+				if (entry == null)
+					return;
+
+				event = entry.decode(wrapper);
+			} catch (RuntimeException e) {
+				throw new IOException("Invalid frame", e);
+			}
+
+			// Removed when the event is forwarded, possibly by another thread
+			origins.put(event, this);
+			bus.callEvent(event);
+		}
+
+		private void close() {
+			peers.remove(this);
+			key.cancel();
+			try {
+				channel.close();
+			} catch (IOException e) {
+				// Nothing to do
+			}
+
+			lock.lock();
+			try {
+				closed = true;
+				frames.clear();
+				notFull.signalAll();
+			} finally {
+				lock.unlock();
+			}
+		}
+	}
+}
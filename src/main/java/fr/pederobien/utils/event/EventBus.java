@@ -0,0 +1,706 @@
+package fr.pederobien.utils.event;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import fr.pederobien.utils.ICancellable;
+
+public class EventBus implements IEventBus {
+	private static final EventPriority[] PRIORITIES = EventPriority.values();
+	private static final ClassValue<Boolean> STICKY;
+
+	private Map<ListenerKey, Map<Class<? extends Event>, Queue<Handler>>> listeners;
+	private Map<ListenerKey, ListenerMailbox> mailboxes;
+	private HandlerRegistry registry;
+	private volatile HandlerMonitor monitor;
+	private ReferenceQueue<IEventListener> collectedListeners;
+	private Thread cleanerThread;
+	private Map<Class<? extends Event>, Event> lastEvents;
+	private Map<Class<? extends Event>, Map<String, Event>> lastKeyedEvents;
+
+	static {
+		STICKY = new ClassValue<Boolean>() {
+			@Override
+			protected Boolean computeValue(Class<?> eventClass) {
+				return eventClass.isAnnotationPresent(Sticky.class);
+			}
+		};
+	}
+
+	/**
+	 * Creates an event bus with its own registry of event listeners. Events called
+	 * on this bus are only dispatched among the listeners registered on this bus.
+	 */
+	public EventBus() {
+		listeners = new ConcurrentHashMap<ListenerKey, Map<Class<? extends Event>, Queue<Handler>>>();
+		mailboxes = new ConcurrentHashMap<ListenerKey, ListenerMailbox>();
+		registry = new HandlerRegistry();
+		collectedListeners = new ReferenceQueue<IEventListener>();
+		lastEvents = new ConcurrentHashMap<Class<? extends Event>, Event>();
+		lastKeyedEvents = new ConcurrentHashMap<Class<? extends Event>, Map<String, Event>>();
+	}
+
+	@Override
+	public void registerListener(IEventListener eventListener) {
+		register(Collections.singletonList(eventListener), false);
+	}
+
+	/**
+	 * Register the given event listeners for events handling. The handlers of all
+	 * the listeners are grouped by event class, so that the dispatch table of each
+	 * event class is updated once.
+	 * 
+	 * @param eventListeners The listeners that gather event handlers.
+	 */
+	@Override
+	public void registerListeners(Collection<? extends IEventListener> eventListeners) {
+		register(eventListeners, false);
+	}
+
+	/**
+	 * Register the given event listener for events handling, without preventing it
+	 * from being garbage collected. Once the listener has been collected, its
+	 * event handlers are removed from this bus by a background thread, so that
+	 * there is no need to unregister it explicitly.
+	 * 
+	 * @param eventListener The listener that gather event handlers.
+	 */
+	@Override
+	public void registerWeakListener(IEventListener eventListener) {
+		register(Collections.singletonList(eventListener), true);
+	}
+
+	@Override
+	public void unregisterListener(IEventListener eventListener) {
+		unregisterListeners(Collections.singletonList(eventListener));
+	}
+
+	/**
+	 * Unregister the given event listeners. The handlers of all the listeners are
+	 * grouped by event class, so that the dispatch table of each event class is
+	 * updated once.
+	 * 
+	 * @param eventListeners The listeners that gather event handlers.
+	 */
+	@Override
+	public void unregisterListeners(Collection<? extends IEventListener> eventListeners) {
+		Map<Class<? extends Event>, List<Handler>> oldHandlers = new HashMap<Class<? extends Event>, List<Handler>>();
+		for (IEventListener eventListener : eventListeners) {
+			ListenerKey key = new ListenerKey(eventListener);
+			Map<Class<? extends Event>, Queue<Handler>> eventHandlers = listeners.remove(key);
+
+			// Listener not registered
+			if (eventHandlers != null)
+				release(key, eventHandlers, oldHandlers);
+		}
+
+		unregister(oldHandlers);
+	}
+
+	@Override
+	public ListenerMailbox getMailbox(IEventListener eventListener) {
+		return mailboxes.get(new ListenerKey(eventListener));
+	}
+
+	@Override
+	public void callEvent(Event event) {
+		doCall(new EventCalledEvent(event));
+		doCall(event);
+		keepIfSticky(event);
+
+		// The last synchronous handler has returned
+		PooledEvent.releaseIfPooled(event);
+	}
+
+	/**
+	 * Fire an {@link EventCalledEvent} for each event, then fire the given events
+	 * and dispatch them among the event handlers. Consecutive events of the same
+	 * class are dispatched together: the handlers are resolved once for all of
+	 * them, handlers whose method takes a {@link List} of events are called once
+	 * with the whole burst and the other handlers are called once per event. For
+	 * a burst, all events are dispatched to the handlers of a priority before
+	 * being dispatched to the handlers of the next priority.
+	 * 
+	 * @param events The events to fire.
+	 */
+	@Override
+	public void callEvents(Collection<? extends Event> events) {
+		List<Event> burst = new ArrayList<Event>();
+		for (Event event : events) {
+			if (!burst.isEmpty() && burst.get(0).getClass() != event.getClass()) {
+				callBurst(burst);
+				burst = new ArrayList<Event>();
+			}
+			burst.add(event);
+		}
+
+		if (!burst.isEmpty())
+			callBurst(burst);
+	}
+
+	@Override
+	public <T extends Event> T getLastEvent(Class<T> eventClass) {
+		return eventClass.cast(lastEvents.get(eventClass));
+	}
+
+	@Override
+	public <T extends Event> T getLastEvent(Class<T> eventClass, String routingKey) {
+		Map<String, Event> keyedEvents = lastKeyedEvents.get(eventClass);
+		return keyedEvents == null ? null : eventClass.cast(keyedEvents.get(routingKey));
+	}
+
+	/**
+	 * Set the monitor that records the invocations of the event handlers of this
+	 * bus. When no monitor is set, the invocations are not measured.
+	 * 
+	 * @param monitor The monitor to use, null in order to stop monitoring.
+	 */
+	public void setMonitor(HandlerMonitor monitor) {
+		this.monitor = monitor;
+	}
+
+	/**
+	 * @return The monitor that records the invocations of the event handlers of
+	 *         this bus, or null if the invocations are not monitored.
+	 */
+	public HandlerMonitor getMonitor() {
+		return monitor;
+	}
+
+	/**
+	 * Handle the given event by running the given handler. Exceptions thrown by the
+	 * handler are printed.
+	 * 
+	 * @param monitor The monitor that records the invocation, or null.
+	 * @param handler The handler to run.
+	 * @param event   The event to handle.
+	 */
+	void invoke(HandlerMonitor monitor, Handler handler, Event event) {
+		try {
+			if (monitor == null)
+				handler.handle(event);
+			else
+				monitor.handle(handler, event);
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Handle the given event by running the given handler.
+	 * 
+	 * @param handler The handler to run.
+	 * @param event   The event to handle.
+	 */
+	void invoke(Handler handler, Event event) {
+		invoke(monitor, handler, event);
+	}
+
+	/**
+	 * Get the registry in which the handlers of the given event class are
+	 * registered.
+	 * 
+	 * @param eventClass The class of the handled events.
+	 * 
+	 * @return The registry of the event class.
+	 */
+	HandlerRegistry getRegistry(Class<? extends Event> eventClass) {
+		return registry;
+	}
+
+	/**
+	 * Register the given event listeners for events handling.
+	 * 
+	 * @param eventListeners The listeners that gather event handlers.
+	 * @param weak           True if this bus should not prevent the listeners from
+	 *                       being garbage collected.
+	 */
+	private void register(Collection<? extends IEventListener> eventListeners, boolean weak) {
+		// Creating the handlers of every listener before modifying this bus, so that
+		// an invalid listener does not leave the previous ones half registered.
+		List<Registration> registrations = new ArrayList<Registration>();
+		for (IEventListener eventListener : eventListeners)
+			registrations.add(new Registration(eventListener, weak));
+
+		Map<Class<? extends Event>, List<Handler>> newHandlers = new HashMap<Class<? extends Event>, List<Handler>>();
+		for (Registration registration : registrations) {
+			listeners.put(registration.key, registration.handlers);
+
+			if (registration.mailbox != null) {
+				registration.mailbox.start();
+				mailboxes.put(registration.key, registration.mailbox);
+			}
+
+			if (registration.reference != null)
+				startCleaner();
+
+			for (Map.Entry<Class<? extends Event>, Queue<Handler>> entry : registration.handlers.entrySet())
+				newHandlers.computeIfAbsent(entry.getKey(), k -> new ArrayList<Handler>()).addAll(entry.getValue());
+		}
+
+		// Registering event handler for specified event.
+		for (Map.Entry<Class<? extends Event>, List<Handler>> entry : newHandlers.entrySet())
+			getRegistry(entry.getKey()).register(entry.getKey(), entry.getValue());
+
+		// Catching up with sticky events called before the registration
+		for (Map.Entry<Class<? extends Event>, List<Handler>> entry : newHandlers.entrySet()) {
+			if (!STICKY.get(entry.getKey()))
+				continue;
+
+			for (Handler handler : entry.getValue()) {
+				if (!handler.isKeyed())
+					deliver(handler, retain(lastEvents, entry.getKey()));
+				else
+					for (String routingKey : handler.getKeys())
+						deliver(handler, retain(lastKeyedEvents.get(entry.getKey()), routingKey));
+			}
+		}
+	}
+
+	/**
+	 * Keep the given event as the last event of its class, and of its routing
+	 * key, if its class is sticky and if it has not been cancelled.
+	 * 
+	 * @param event The dispatched event.
+	 */
+	private void keepIfSticky(Event event) {
+		if (!STICKY.get(event.getClass()))
+			return;
+
+		if (event instanceof ICancellable && ((ICancellable) event).isCancelled())
+			return;
+
+		// A pooled event must not be recycled while it is kept
+		PooledEvent.retainIfPooled(event);
+		PooledEvent.releaseIfPooled(lastEvents.put(event.getClass(), event));
+
+		if (!(event instanceof IKeyedEvent) || ((IKeyedEvent) event).getRoutingKey() == null)
+			return;
+
+		Map<String, Event> keyedEvents = lastKeyedEvents.computeIfAbsent(event.getClass(), key -> new ConcurrentHashMap<String, Event>());
+		PooledEvent.retainIfPooled(event);
+		PooledEvent.releaseIfPooled(keyedEvents.put(((IKeyedEvent) event).getRoutingKey(), event));
+	}
+
+	/**
+	 * Get and retain the last event associated to the given key, so that it is not
+	 * recycled if it is replaced meanwhile.
+	 * 
+	 * @param events The last events, may be null.
+	 * @param key    The key of the event.
+	 * 
+	 * @return The last event, or null.
+	 */
+	private static <K> Event retain(Map<K, Event> events, K key) {
+		if (events == null)
+			return null;
+
+		Event[] event = new Event[1];
+		events.computeIfPresent(key, (k, last) -> {
+			PooledEvent.retainIfPooled(last);
+			return event[0] = last;
+		});
+		return event[0];
+	}
+
+	/**
+	 * Dispatch the given sticky event to the given handler, then release it.
+	 * 
+	 * @param handler The handler of a newly registered listener.
+	 * @param event   The retained last event of the class handled by the handler,
+	 *                or null.
+	 */
+	private void deliver(Handler handler, Event event) {
+		if (event == null)
+			return;
+
+		try {
+			if (handler.getMailbox() != null)
+				handler.getMailbox().post(handler, event);
+			else
+				invoke(handler, event);
+		} finally {
+			PooledEvent.releaseIfPooled(event);
+		}
+	}
+
+	/**
+	 * Dispose the mailbox of an unregistered listener, if any, and gather its
+	 * handlers by event class.
+	 * 
+	 * @param key           The key of the listener.
+	 * @param eventHandlers The handlers of the listener.
+	 * @param oldHandlers   The handlers to remove from the registries, by event
+	 *                      class.
+	 */
+	private void release(ListenerKey key, Map<Class<? extends Event>, Queue<Handler>> eventHandlers,
+			Map<Class<? extends Event>, List<Handler>> oldHandlers) {
+		ListenerMailbox mailbox = mailboxes.remove(key);
+		if (mailbox != null)
+			mailbox.dispose();
+
+		for (Map.Entry<Class<? extends Event>, Queue<Handler>> entry : eventHandlers.entrySet())
+			oldHandlers.computeIfAbsent(entry.getKey(), k -> new ArrayList<Handler>()).addAll(entry.getValue());
+	}
+
+	/**
+	 * Remove the given handlers from the registries.
+	 * 
+	 * @param oldHandlers The handlers to remove, by event class.
+	 */
+	private void unregister(Map<Class<? extends Event>, List<Handler>> oldHandlers) {
+		for (Map.Entry<Class<? extends Event>, List<Handler>> entry : oldHandlers.entrySet())
+			getRegistry(entry.getKey()).unregister(entry.getKey(), entry.getValue());
+	}
+
+	/**
+	 * Start the thread that removes the handlers of garbage collected listeners,
+	 * if not already started.
+	 */
+	private synchronized void startCleaner() {
+		if (cleanerThread != null)
+			return;
+
+		cleanerThread = new Thread(() -> purge(), "EventBusCleaner");
+		cleanerThread.setDaemon(true);
+		cleanerThread.start();
+	}
+
+	/**
+	 * Wait for weakly registered listeners to be garbage collected in order to
+	 * remove their handlers from this bus.
+	 */
+	private void purge() {
+		while (true) {
+			try {
+				ListenerReference reference = (ListenerReference) collectedListeners.remove();
+
+				// The listener may have been unregistered explicitly meanwhile
+				if (listeners.remove(reference.key, reference.handlers)) {
+					Map<Class<? extends Event>, List<Handler>> oldHandlers = new HashMap<Class<? extends Event>, List<Handler>>();
+					release(reference.key, reference.handlers, oldHandlers);
+					unregister(oldHandlers);
+				}
+			} catch (InterruptedException e) {
+				return;
+			} catch (Exception e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	/**
+	 * Creates the handlers of the given listener, grouped by event class. The
+	 * handler methods of a listener class are only extracted once, so that
+	 * registering a listener is a copy of the handler table of its class.
+	 * 
+	 * @param eventListener The listener that gather event handlers.
+	 * @param reference     The weak reference to the listener, null if the
+	 *                      handlers should reference the listener strongly.
+	 * @param mailbox       The mailbox of the listener, null if events should be
+	 *                      dispatched synchronously.
+	 * 
+	 * @return The handlers of the listener.
+	 */
+	private static Map<Class<? extends Event>, Queue<Handler>> createEventHandler(IEventListener eventListener,
+			ListenerReference reference, ListenerMailbox mailbox) {
+		Map<Class<? extends Event>, Queue<Handler>> eventHandlersMap = new HashMap<Class<? extends Event>, Queue<Handler>>();
+
+		for (HandlerDescriptor descriptor : ListenerIndex.get(eventListener.getClass())) {
+			// Get or create the list of event handler registered for the event.
+			Queue<Handler> eventHandlerList = eventHandlersMap.get(descriptor.getEventClass());
+			if (eventHandlerList == null) {
+				eventHandlerList = new ConcurrentLinkedQueue<>();
+				eventHandlersMap.put(descriptor.getEventClass(), eventHandlerList);
+			}
+
+			if (reference == null)
+				eventHandlerList.add(new Handler(eventListener, descriptor, mailbox));
+			else
+				eventHandlerList.add(new Handler(reference, descriptor, mailbox));
+		}
+		return eventHandlersMap;
+	}
+
+	/**
+	 * Fire an {@link EventCalledEvent} for each event of the burst, if they are
+	 * listened, then dispatch the burst among the event handlers.
+	 * 
+	 * @param burst Consecutive events of the same class.
+	 */
+	private void callBurst(List<Event> burst) {
+		if (getRegistry(EventCalledEvent.class).get(EventCalledEvent.class) != null) {
+			List<Event> calledEvents = new ArrayList<Event>(burst.size());
+			for (Event event : burst)
+				calledEvents.add(new EventCalledEvent(event));
+			doCall(calledEvents);
+		}
+
+		doCall(burst);
+
+		// The last synchronous handler has returned
+		for (Event event : burst) {
+			keepIfSticky(event);
+			PooledEvent.releaseIfPooled(event);
+		}
+	}
+
+	private void doCall(List<Event> burst) {
+		Class<? extends Event> eventClass = burst.get(0).getClass();
+		HandlerRegistry registry = getRegistry(eventClass);
+		PriorityHandlers handlersMap = registry.get(eventClass);
+		int cancelledLimit = handlersMap == null ? -1 : handlersMap.getCancelledLimit();
+
+		// Grouping the events by routing key for the handlers subscribed to keys
+		Map<PriorityHandlers, List<Event>> keyedEvents = null;
+		if (burst.get(0) instanceof IKeyedEvent && registry.isKeyed(eventClass)) {
+			keyedEvents = new LinkedHashMap<PriorityHandlers, List<Event>>();
+			for (Event event : burst) {
+				PriorityHandlers keyedMap = registry.get(eventClass, ((IKeyedEvent) event).getRoutingKey());
+				if (keyedMap != null)
+					keyedEvents.computeIfAbsent(keyedMap, key -> new ArrayList<Event>()).add(event);
+			}
+
+			for (PriorityHandlers keyedMap : keyedEvents.keySet())
+				cancelledLimit = Math.max(cancelledLimit, keyedMap.getCancelledLimit());
+		}
+
+		// No handlers registered for the given events.
+		if (handlersMap == null && (keyedEvents == null || keyedEvents.isEmpty()))
+			return;
+
+		List<Event> events = Collections.unmodifiableList(burst);
+		boolean cancellable = burst.get(0) instanceof ICancellable;
+		HandlerMonitor monitor = this.monitor;
+		for (EventPriority priority : PRIORITIES) {
+			// Remaining handlers ignore cancelled events
+			if (cancellable && priority.ordinal() > cancelledLimit && isCancelled(events))
+				return;
+
+			if (handlersMap != null)
+				dispatch(monitor, handlersMap.get(priority), events);
+
+			if (keyedEvents == null)
+				continue;
+
+			for (Map.Entry<PriorityHandlers, List<Event>> entry : keyedEvents.entrySet())
+				dispatch(monitor, entry.getKey().get(priority), Collections.unmodifiableList(entry.getValue()));
+		}
+	}
+
+	private void doCall(Event event) {
+		Class<? extends Event> eventClass = event.getClass();
+		HandlerRegistry registry = getRegistry(eventClass);
+		PriorityHandlers handlersMap = registry.get(eventClass);
+		PriorityHandlers keyedMap = null;
+		if (event instanceof IKeyedEvent)
+			keyedMap = registry.get(eventClass, ((IKeyedEvent) event).getRoutingKey());
+
+		// No handlers registered for the given event.
+		if (handlersMap == null && keyedMap == null)
+			return;
+
+		// Position after which all handlers ignore cancelled events
+		ICancellable cancellable = event instanceof ICancellable ? (ICancellable) event : null;
+		int cancelledLimit = Math.max(handlersMap == null ? -1 : handlersMap.getCancelledLimit(),
+				keyedMap == null ? -1 : keyedMap.getCancelledLimit());
+
+		HandlerMonitor monitor = this.monitor;
+		for (EventPriority priority : PRIORITIES) {
+			// Remaining handlers ignore cancelled events
+			if (cancellable != null && priority.ordinal() > cancelledLimit && cancellable.isCancelled())
+				return;
+
+			if (handlersMap != null)
+				dispatch(monitor, handlersMap.get(priority), event);
+			if (keyedMap != null)
+				dispatch(monitor, keyedMap.get(priority), event);
+		}
+	}
+
+	/**
+	 * Dispatch the given events to the given handlers.
+	 * 
+	 * @param monitor  The monitor that records the invocations, or null.
+	 * @param handlers The handlers of a priority.
+	 * @param events   Consecutive events of the same class.
+	 */
+	private void dispatch(HandlerMonitor monitor, Queue<Handler> handlers, List<Event> events) {
+		for (Handler handler : handlers) {
+			// The listener consumes its events asynchronously
+			if (handler.getMailbox() != null) {
+				for (Event event : events)
+					handler.getMailbox().post(handler, event);
+				continue;
+			}
+
+			// The handler processes the whole burst at once
+			if (handler.isBatch()) {
+				try {
+					if (monitor == null)
+						handler.handle(events);
+					else
+						monitor.handle(handler, events);
+				} catch (Exception e) {
+					e.printStackTrace();
+				}
+				continue;
+			}
+
+			for (Event event : events)
+				invoke(monitor, handler, event);
+		}
+	}
+
+	/**
+	 * Dispatch the given event to the given handlers.
+	 * 
+	 * @param monitor  The monitor that records the invocations, or null.
+	 * @param handlers The handlers of a priority.
+	 * @param event    The event to dispatch.
+	 */
+	private void dispatch(HandlerMonitor monitor, Queue<Handler> handlers, Event event) {
+		for (Handler handler : handlers) {
+			// The listener consumes its events asynchronously
+			if (handler.getMailbox() != null) {
+				handler.getMailbox().post(handler, event);
+				continue;
+			}
+
+			invoke(monitor, handler, event);
+		}
+	}
+
+	/**
+	 * @param events Consecutive cancellable events of the same class.
+	 * 
+	 * @return True if all the given events have been cancelled.
+	 */
+	private static boolean isCancelled(List<Event> events) {
+		for (Event event : events)
+			if (!((ICancellable) event).isCancelled())
+				return false;
+		return true;
+	}
+
+	/**
+	 * Creates a listener name, used to name its mailbox thread.
+	 * 
+	 * @param listener The listener used to create the name.
+	 * 
+	 * @return The following string :
+	 *         <code>&lt;listenerName&gt;@&lt;hashcode&gt;</code>
+	 */
+	private static String getListenerName(IEventListener listener) {
+		return String.format("%s@%s", listener.getListenerName(), listener.hashCode());
+	}
+
+	private static class ListenerKey {
+		private IEventListener listener;
+		private ListenerReference reference;
+		private int hash;
+
+		/**
+		 * Creates a key that identifies a registered listener by identity.
+		 * 
+		 * @param listener The registered listener.
+		 */
+		private ListenerKey(IEventListener listener) {
+			this.listener = listener;
+			hash = System.identityHashCode(listener);
+		}
+
+		/**
+		 * Creates a key that identifies a weakly registered listener by identity,
+		 * without preventing it from being garbage collected.
+		 * 
+		 * @param reference The weak reference to the registered listener.
+		 * @param hash      The identity hash code of the listener.
+		 */
+		private ListenerKey(ListenerReference reference, int hash) {
+			this.reference = reference;
+			this.hash = hash;
+		}
+
+		/**
+		 * @return The listener, or null if it has been garbage collected.
+		 */
+		private IEventListener get() {
+			return reference == null ? listener : reference.get();
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+
+			if (!(obj instanceof ListenerKey))
+				return false;
+
+			IEventListener listener = get();
+			return listener != null && listener == ((ListenerKey) obj).get();
+		}
+	}
+
+	private class Registration {
+		private ListenerReference reference;
+		private ListenerKey key;
+		private ListenerMailbox mailbox;
+		private Map<Class<? extends Event>, Queue<Handler>> handlers;
+
+		/**
+		 * Creates the handlers and the mailbox of a listener about to be registered on
+		 * this bus. The mailbox is not started.
+		 * 
+		 * @param eventListener The listener that gather event handlers.
+		 * @param weak          True if this bus should not prevent the listener from
+		 *                      being garbage collected.
+		 */
+		private Registration(IEventListener eventListener, boolean weak) {
+			reference = weak ? new ListenerReference(eventListener, collectedListeners) : null;
+			key = reference == null ? new ListenerKey(eventListener) : reference.key;
+
+			// Creating the mailbox of the listener if events should be buffered.
+			Mailbox annotation = eventListener.getClass().getAnnotation(Mailbox.class);
+			if (annotation != null)
+				mailbox = new ListenerMailbox(EventBus.this, getListenerName(eventListener), annotation.capacity(), annotation.overflow());
+
+			// Separating event listener into event handlers.
+			handlers = createEventHandler(eventListener, reference, mailbox);
+			if (reference != null)
+				reference.handlers = handlers;
+		}
+	}
+
+	private static class ListenerReference extends WeakReference<IEventListener> {
+		private ListenerKey key;
+		private Map<Class<? extends Event>, Queue<Handler>> handlers;
+
+		/**
+		 * Creates a weak reference to a listener registered on this bus.
+		 * 
+		 * @param listener The registered listener.
+		 * @param queue    The queue in which the reference is enqueued once the
+		 *                 listener has been garbage collected.
+		 */
+		private ListenerReference(IEventListener listener, ReferenceQueue<IEventListener> queue) {
+			super(listener, queue);
+			key = new ListenerKey(this, System.identityHashCode(listener));
+		}
+	}
+}
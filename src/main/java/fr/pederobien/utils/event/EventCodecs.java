@@ -0,0 +1,121 @@
+package fr.pederobien.utils.event;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import fr.pederobien.utils.ByteWrapper;
+import fr.pederobien.utils.ReadableByteWrapper;
+
+public class EventCodecs {
+	private Map<Class<? extends Event>, Entry<?>> byClass;
+	private Map<Integer, Entry<?>> byId;
+
+	/**
+	 * Creates a registry that associates an event class to the codec used to write
+	 * its events in an {@link EventJournal} and to read them back with an
+	 * {@link EventReplayer}. The same registrations must be used for recording and
+	 * replaying a journal.
+	 */
+	public EventCodecs() {
+		byClass = new ConcurrentHashMap<Class<? extends Event>, Entry<?>>();
+		byId = new ConcurrentHashMap<Integer, Entry<?>>();
+	}
+
+	/**
+	 * Register the codec of the given event class.
+	 * 
+	 * @param typeId     The identifier written in the journal for the events of
+	 *                   the given class, must be positive or 0.
+	 * @param eventClass The class of the events.
+	 * @param codec      The codec of the events.
+	 * 
+	 * @return This registry.
+	 * 
+	 * @throws IllegalArgumentException If the identifier is negative or already
+	 *                                  used, or if the class is already registered.
+	 */
+	public <T extends Event> EventCodecs register(int typeId, Class<T> eventClass, IEventCodec<T> codec) {
+		if (typeId < 0)
+			throw new IllegalArgumentException("The type identifier must be positive or 0");
+
+		Entry<T> entry = new Entry<T>(typeId, eventClass, codec);
+		if (byId.putIfAbsent(typeId, entry) != null)
+			throw new IllegalArgumentException(String.format("The type identifier %s is already used", typeId));
+
+		if (byClass.putIfAbsent(eventClass, entry) != null) {
+			byId.remove(typeId);
+			throw new IllegalArgumentException(String.format("A codec is already registered for %s", eventClass.getSimpleName()));
+		}
+		return this;
+	}
+
+	/**
+	 * Get the codec of the given event class.
+	 * 
+	 * @param eventClass The class of the events.
+	 * 
+	 * @return The registration of the class, or null if there is none.
+	 */
+	Entry<?> get(Class<? extends Event> eventClass) {
+		return byClass.get(eventClass);
+	}
+
+	/**
+	 * Get the codec associated to the given identifier.
+	 * 
+	 * @param typeId The identifier written in the journal.
+	 * 
+	 * @return The registration of the identifier, or null if there is none.
+	 */
+	Entry<?> get(int typeId) {
+		return byId.get(typeId);
+	}
+
+	static class Entry<T extends Event> {
+		private int typeId;
+		private Class<T> eventClass;
+		private IEventCodec<T> codec;
+
+		/**
+		 * Creates the registration of an event class.
+		 * 
+		 * @param typeId     The identifier written in the journal.
+		 * @param eventClass The class of the events.
+		 * @param codec      The codec of the events.
+		 */
+		private Entry(int typeId, Class<T> eventClass, IEventCodec<T> codec) {
+			this.typeId = typeId;
+			this.eventClass = eventClass;
+			this.codec = codec;
+		}
+
+		/**
+		 * @return The identifier written in the journal.
+		 */
+		int getTypeId() {
+			return typeId;
+		}
+
+		/**
+		 * Write the given event in the given wrapper.
+		 * 
+		 * @param event   The event to encode, must be an instance of the registered
+		 *                class.
+		 * @param wrapper The wrapper in which the event is written.
+		 */
+		void encode(Event event, ByteWrapper wrapper) {
+			codec.encode(eventClass.cast(event), wrapper);
+		}
+
+		/**
+		 * Creates an event from the given wrapper.
+		 * 
+		 * @param wrapper The wrapper from which the event is read.
+		 * 
+		 * @return The decoded event.
+		 */
+		Event decode(ReadableByteWrapper wrapper) {
+			return codec.decode(wrapper);
+		}
+	}
+}
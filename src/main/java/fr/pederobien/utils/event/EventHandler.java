@@ -6,7 +6,10 @@ import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
 /**
- * An annotation to mark methods as being event handler methods
+ * An annotation to mark methods as being event handler methods. The method
+ * takes either one event or a {@link java.util.List List} of events of the
+ * same class, in which case it is called once per burst published with
+ * {@link EventManager#callEvents(java.util.Collection)}.
  */
 @Target(ElementType.METHOD)
 @Retention(RetentionPolicy.RUNTIME)
@@ -38,4 +41,15 @@ public @interface EventHandler {
 	 * @return whether cancelled events should be ignored
 	 */
 	boolean ignoreCancelled() default true;
+
+	/**
+	 * Define the routing keys of the events the handler subscribes to.
+	 * <p>
+	 * If keys are defined and the event implements {@link IKeyedEvent}, the method
+	 * is only called if the routing key of the event is one of them. Otherwise,
+	 * the method is called for all events.
+	 * 
+	 * @return the routing keys of the handled events
+	 */
+	String[] keys() default {};
 }
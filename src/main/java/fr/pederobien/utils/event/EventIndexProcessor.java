@@ -0,0 +1,207 @@
+package fr.pederobien.utils.event;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic.Kind;
+
+/**
+ * Annotation processor that generates, for each listener class declaring
+ * methods annotated with {@link EventHandler}, a table describing its event
+ * handlers. At registration, the table is copied instead of scanning the
+ * listener class by reflection. Non private methods are invoked directly by the
+ * generated code, private methods are still invoked by reflection.
+ * <p>
+ * The processor is registered as a service, it is discovered as soon as this
+ * library is on the compilation class path. Since JDK 23, annotation processing
+ * must be enabled explicitly, for instance with the <code>-proc:full</code>
+ * compiler option.
+ */
+@SupportedAnnotationTypes("fr.pederobien.utils.event.EventHandler")
+public class EventIndexProcessor extends AbstractProcessor {
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		Map<TypeElement, List<ExecutableElement>> listeners = new LinkedHashMap<TypeElement, List<ExecutableElement>>();
+		for (Element element : roundEnv.getElementsAnnotatedWith(EventHandler.class)) {
+			if (element.getKind() != ElementKind.METHOD)
+				continue;
+
+			TypeElement listener = (TypeElement) element.getEnclosingElement();
+			listeners.computeIfAbsent(listener, key -> new ArrayList<ExecutableElement>()).add((ExecutableElement) element);
+		}
+
+		for (Map.Entry<TypeElement, List<ExecutableElement>> entry : listeners.entrySet())
+			generate(entry.getKey(), entry.getValue());
+
+		return false;
+	}
+
+	/**
+	 * Generates the handler table of the given listener class. Nothing is
+	 * generated if the listener class or one of the handled events cannot be
+	 * referenced from the package of the listener, the class is then scanned by
+	 * reflection at registration.
+	 * 
+	 * @param listener The listener class.
+	 * @param methods  The event handler methods declared by the listener class.
+	 */
+	private void generate(TypeElement listener, List<ExecutableElement> methods) {
+		TypeMirror eventListener = processingEnv.getElementUtils().getTypeElement(IEventListener.class.getCanonicalName()).asType();
+		if (!processingEnv.getTypeUtils().isAssignable(processingEnv.getTypeUtils().erasure(listener.asType()), eventListener))
+			return;
+
+		String packageName = processingEnv.getElementUtils().getPackageOf(listener).getQualifiedName().toString();
+		if (!isReferenceable(listener, packageName))
+			return;
+
+		List<String> descriptors = new ArrayList<String>();
+		for (ExecutableElement method : methods) {
+			String descriptor = describe(listener, packageName, method);
+			if (descriptor == null)
+				return;
+			descriptors.add(descriptor);
+		}
+
+		String binaryName = processingEnv.getElementUtils().getBinaryName(listener).toString();
+		String simpleName = binaryName.substring(packageName.isEmpty() ? 0 : packageName.length() + 1) + IListenerIndex.SUFFIX;
+
+		StringJoiner joiner = new StringJoiner(",\n\t\t\t\t", "\t\treturn Arrays.asList(\n\t\t\t\t", ");\n");
+		descriptors.forEach(descriptor -> joiner.add(descriptor));
+
+		StringBuilder builder = new StringBuilder();
+		if (!packageName.isEmpty())
+			builder.append(String.format("package %s;\n\n", packageName));
+		builder.append("import java.util.Arrays;\n");
+		builder.append("import java.util.List;\n\n");
+		builder.append("import fr.pederobien.utils.event.EventPriority;\n");
+		builder.append("import fr.pederobien.utils.event.HandlerDescriptor;\n");
+		builder.append("import fr.pederobien.utils.event.IListenerIndex;\n\n");
+		builder.append("@SuppressWarnings({ \"unchecked\", \"rawtypes\" })\n");
+		builder.append(String.format("public final class %s implements IListenerIndex {\n\n", simpleName));
+		builder.append("\t@Override\n");
+		builder.append("\tpublic List<HandlerDescriptor> getDescriptors() {\n");
+		builder.append(joiner.toString());
+		builder.append("\t}\n");
+		builder.append("}\n");
+
+		try (Writer writer = processingEnv.getFiler().createSourceFile(binaryName + IListenerIndex.SUFFIX, listener).openWriter()) {
+			writer.write(builder.toString());
+		} catch (IOException e) {
+			processingEnv.getMessager().printMessage(Kind.WARNING, "Cannot generate the event handler table: " + e.getMessage(), listener);
+		}
+	}
+
+	/**
+	 * Creates the source code of the descriptor of an event handler method.
+	 * 
+	 * @param listener    The listener class.
+	 * @param packageName The package of the listener class.
+	 * @param method      The event handler method.
+	 * 
+	 * @return The source code, or null if the handled event cannot be referenced.
+	 */
+	private String describe(TypeElement listener, String packageName, ExecutableElement method) {
+		List<? extends VariableElement> parameters = method.getParameters();
+		TypeMirror eventType = parameters.size() == 1 ? parameters.get(0).asType() : null;
+		boolean isBatch = false;
+
+		// Batch event handler, the event is the type argument of the list
+		if (eventType != null && isList(eventType)) {
+			List<? extends TypeMirror> arguments = ((DeclaredType) eventType).getTypeArguments();
+			eventType = arguments.size() == 1 ? arguments.get(0) : null;
+			isBatch = true;
+		} else if (eventType != null) {
+			// As reflection, a type variable is resolved to the erasure of its bound
+			eventType = processingEnv.getTypeUtils().erasure(eventType);
+		}
+
+		TypeMirror event = processingEnv.getElementUtils().getTypeElement(Event.class.getCanonicalName()).asType();
+		if (eventType == null || eventType.getKind() != TypeKind.DECLARED || !processingEnv.getTypeUtils().isAssignable(eventType, event)) {
+			String message = String.format("%s is an invalid event handler method signature", method);
+			processingEnv.getMessager().printMessage(Kind.ERROR, message, method);
+			return null;
+		}
+
+		TypeElement eventElement = (TypeElement) ((DeclaredType) eventType).asElement();
+		if (!isReferenceable(eventElement, packageName))
+			return null;
+
+		EventHandler eventHandler = method.getAnnotation(EventHandler.class);
+		String eventName = eventElement.getQualifiedName().toString();
+		String invoker = "null";
+		if (!method.getModifiers().contains(Modifier.PRIVATE)) {
+			String argument = isBatch ? "(List) argument" : String.format("(%s) argument", eventName);
+			invoker = String.format("(listener, argument) -> ((%s) listener).%s(%s)", listener.getQualifiedName(), method.getSimpleName(),
+					argument);
+		}
+
+		StringJoiner keys = new StringJoiner(", ", "new String[] { ", " }").setEmptyValue("new String[0]");
+		for (String key : eventHandler.keys())
+			keys.add(processingEnv.getElementUtils().getConstantExpression(key));
+
+		return String.format("new HandlerDescriptor(%s.class, \"%s\", EventPriority.%s, %s, %s, %s, %s)", eventName, method.getSimpleName(),
+				eventHandler.priority().name(), eventHandler.ignoreCancelled(), isBatch, keys, invoker);
+	}
+
+	/**
+	 * @param type The type to check.
+	 * 
+	 * @return True if the erasure of the given type is {@link List}.
+	 */
+	private boolean isList(TypeMirror type) {
+		TypeMirror list = processingEnv.getTypeUtils().erasure(processingEnv.getElementUtils().getTypeElement(List.class.getName()).asType());
+		return processingEnv.getTypeUtils().isSameType(processingEnv.getTypeUtils().erasure(type), list);
+	}
+
+	/**
+	 * Check if the given type can be referenced by a class generated in the given
+	 * package.
+	 * 
+	 * @param type        The type to check.
+	 * @param packageName The package of the generated class.
+	 * 
+	 * @return True if neither the type nor its enclosing types are local or
+	 *         anonymous, and if they are all public when the type is declared in
+	 *         another package, or not private otherwise.
+	 */
+	private boolean isReferenceable(TypeElement type, String packageName) {
+		String typePackage = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+		boolean samePackage = typePackage.equals(packageName);
+
+		for (Element element = type; element instanceof TypeElement; element = element.getEnclosingElement()) {
+			TypeElement typeElement = (TypeElement) element;
+			if (typeElement.getNestingKind() == NestingKind.LOCAL || typeElement.getNestingKind() == NestingKind.ANONYMOUS)
+				return false;
+
+			if (samePackage ? typeElement.getModifiers().contains(Modifier.PRIVATE) : !typeElement.getModifiers().contains(Modifier.PUBLIC))
+				return false;
+		}
+		return true;
+	}
+}
@@ -0,0 +1,243 @@
+package fr.pederobien.utils.event;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import fr.pederobien.utils.ByteWrapper;
+
+public class EventJournal implements IEventListener {
+	/**
+	 * The extension of the files in which the events are recorded.
+	 */
+	public static final String EXTENSION = ".journal";
+
+	private IEventBus bus;
+	private Path directory;
+	private int segmentSize;
+	private EventCodecs codecs;
+	private long origin;
+	private volatile Segment segment;
+	private List<Segment> unforced;
+	private LongAdder recorded, dropped;
+
+	/**
+	 * Creates a journal that records the events called on the given bus in
+	 * append-only memory-mapped files, called segments. Each event whose class has
+	 * a codec is written as its type identifier and its timestamp, both encoded as
+	 * variable length numbers, followed by the data written by its codec. A new
+	 * segment is created when the current one is full.
+	 * <p>
+	 * Publishers reserve the room of their record with an atomic increment and
+	 * copy it in the mapped memory, so that recording never waits for the disk. The
+	 * events are recorded when they are called, before being dispatched to the
+	 * other handlers.
+	 * 
+	 * @param bus         The bus whose events are recorded.
+	 * @param directory   The directory in which the segments are created, it must
+	 *                    not already contain segments.
+	 * @param segmentSize The size, in bytes, of a segment.
+	 * @param codecs      The codecs of the events to record.
+	 * 
+	 * @throws IllegalArgumentException If the size of a segment is not greater
+	 *                                  than 4 bytes.
+	 */
+	public EventJournal(IEventBus bus, Path directory, int segmentSize, EventCodecs codecs) {
+		if (segmentSize <= Integer.BYTES)
+			throw new IllegalArgumentException("The size of a segment must be greater than 4 bytes");
+
+		this.bus = bus;
+		this.directory = directory;
+		this.segmentSize = segmentSize;
+		this.codecs = codecs;
+
+		unforced = new ArrayList<Segment>();
+		recorded = new LongAdder();
+		dropped = new LongAdder();
+	}
+
+	/**
+	 * Creates a journal that records the events called on the default bus of the
+	 * {@link EventManager}.
+	 * 
+	 * @param directory   The directory in which the segments are created.
+	 * @param segmentSize The size, in bytes, of a segment.
+	 * @param codecs      The codecs of the events to record.
+	 * 
+	 * @see #EventJournal(IEventBus, Path, int, EventCodecs)
+	 */
+	public EventJournal(Path directory, int segmentSize, EventCodecs codecs) {
+		this(EventManager.getDefault(), directory, segmentSize, codecs);
+	}
+
+	/**
+	 * Start recording the events called on the bus.
+	 * 
+	 * @throws IOException If the first segment cannot be created.
+	 */
+	public synchronized void start() throws IOException {
+		if (segment == null) {
+			Files.createDirectories(directory);
+			origin = System.nanoTime();
+			segment = createSegment(0);
+			unforced.add(segment);
+		}
+		bus.registerListener(this);
+	}
+
+	/**
+	 * Stop recording the events called on the bus and write to the disk the
+	 * segments created since the previous stop.
+	 */
+	public synchronized void stop() {
+		bus.unregisterListener(this);
+		for (Segment written : unforced)
+			written.buffer.force();
+
+		unforced.clear();
+		if (segment != null)
+			unforced.add(segment);
+	}
+
+	/**
+	 * Record the given event if its class has a codec.
+	 * 
+	 * @param event The event to record.
+	 */
+	public void record(Event event) {
+		EventCodecs.Entry<?> entry = codecs.get(event.getClass());
+		if (entry == null || segment == null)
+			return;
+
+		ByteWrapper wrapper = ByteWrapper.create();
+		wrapper.putVarLong(entry.getTypeId()).putVarLong(System.nanoTime() - origin);
+		entry.encode(event, wrapper);
+		write(wrapper.get());
+	}
+
+	/**
+	 * @return The directory in which the segments are created.
+	 */
+	public Path getDirectory() {
+		return directory;
+	}
+
+	/**
+	 * @return The number of recorded events.
+	 */
+	public long getRecorded() {
+		return recorded.sum();
+	}
+
+	/**
+	 * @return The number of events that could not be recorded, because they are
+	 *         bigger than a segment or because a segment could not be created.
+	 */
+	public long getDropped() {
+		return dropped.sum();
+	}
+
+	@EventHandler(priority = EventPriority.LOWEST)
+	private void onEventCalled(EventCalledEvent event) {
+		record(event.getEvent());
+	}
+
+	/**
+	 * Append the given record in the current segment, a new segment is created if
+	 * there is not enough room. A record is written as its length followed by its
+	 * bytes, the length being written last so that a zero length marks the end of
+	 * the records of a segment.
+	 * 
+	 * @param record The bytes of the record.
+	 */
+	private void write(byte[] record) {
+		int size = Integer.BYTES + record.length;
+		if (size > segmentSize) {
+			dropped.increment();
+			return;
+		}
+
+		while (true) {
+			Segment current = segment;
+			int position = current.position.getAndAdd(size);
+			if (position <= segmentSize - size) {
+				current.buffer.put(position + Integer.BYTES, record);
+				current.buffer.putInt(position, record.length);
+				recorded.increment();
+				return;
+			}
+
+			if (!roll(current)) {
+				dropped.increment();
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Replace the given full segment with a new segment, if not already done by
+	 * another thread.
+	 * 
+	 * @param full The full segment.
+	 * 
+	 * @return True if a segment with enough room may be available.
+	 */
+	private synchronized boolean roll(Segment full) {
+		if (segment != full)
+			return true;
+
+		try {
+			segment = createSegment(full.index + 1);
+			unforced.add(segment);
+			return true;
+		} catch (IOException e) {
+			e.printStackTrace();
+			return false;
+		}
+	}
+
+	/**
+	 * Creates a new segment file and maps it in memory.
+	 * 
+	 * @param index The index of the segment.
+	 * 
+	 * @return The created segment.
+	 * 
+	 * @throws IOException If the file already exists or cannot be mapped.
+	 */
+	private Segment createSegment(int index) throws IOException {
+		Path path = directory.resolve(String.format("%08d%s", index, EXTENSION));
+		StandardOpenOption[] options = { StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE };
+
+		// The mapping remains valid once the channel is closed
+		try (FileChannel channel = FileChannel.open(path, options)) {
+			return new Segment(index, channel.map(MapMode.READ_WRITE, 0, segmentSize));
+		}
+	}
+
+	private static class Segment {
+		private int index;
+		private MappedByteBuffer buffer;
+		private AtomicInteger position;
+
+		/**
+		 * Creates a segment in which records are appended.
+		 * 
+		 * @param index  The index of the segment.
+		 * @param buffer The memory mapped on the segment file.
+		 */
+		private Segment(int index, MappedByteBuffer buffer) {
+			this.index = index;
+			this.buffer = buffer;
+			position = new AtomicInteger();
+		}
+	}
+}
@@ -1,62 +1,58 @@
 package fr.pederobien.utils.event;
 
-import java.lang.reflect.Method;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.EnumMap;
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.List;
-import java.util.Map;
-import java.util.Queue;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.Collection;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
 import fr.pederobien.utils.ICancellable;
 
 public class EventManager {
-	private static final Map<Class<? extends Event>, Map<EventPriority, Queue<Handler>>> HANDLERS;
-	private static final Map<String, Map<Class<? extends Event>, Queue<Handler>>> LISTENERS;
+	private static final EventBus DEFAULT;
 
 	static {
-		HANDLERS = new ConcurrentHashMap<Class<? extends Event>, Map<EventPriority, Queue<Handler>>>();
-		LISTENERS = new ConcurrentHashMap<String, Map<Class<? extends Event>, Queue<Handler>>>();
+		DEFAULT = new EventBus();
+	}
+
+	/**
+	 * @return The event bus on which the static methods of this class register
+	 *         listeners and call events.
+	 */
+	public static EventBus getDefault() {
+		return DEFAULT;
 	}
 
 	/**
 	 * Register the given event listener for events handling. There is no mechanism
-	 * to check if the listener is already registered or not.
+	 * to check if the listener is already registered or not. If the listener class
+	 * is annotated with {@link Mailbox}, the events are dispatched asynchronously
+	 * to its event handlers.
 	 * 
 	 * @param eventListener The listener that gather event handlers.
 	 */
 	public static void registerListener(IEventListener eventListener) {
-		// Separating event listener into event handlers.
-		Map<Class<? extends Event>, Queue<Handler>> newEventHandlers = createEventHandler(eventListener);
-		LISTENERS.put(getListenerName(eventListener), newEventHandlers);
-
-		// Registering event handler for specified event.
-		for (Map.Entry<Class<? extends Event>, Queue<Handler>> entryEventHandlers : newEventHandlers.entrySet()) {
-			Map<EventPriority, Queue<Handler>> eventHandlers = HANDLERS.get(entryEventHandlers.getKey());
-
-			// Creating a new Map if there is no event handler registered for the event.
-			if (eventHandlers == null) {
-				// Creating a map in order to associated the priority with an empty list.
-				EnumMap<EventPriority, Queue<Handler>> enumMap = new EnumMap<EventPriority, Queue<Handler>>(
-						EventPriority.class);
-				for (EventPriority priority : EventPriority.values())
-					enumMap.put(priority, new ConcurrentLinkedQueue<Handler>());
+		DEFAULT.registerListener(eventListener);
+	}
 
-				// Registering the created map.
-				eventHandlers = Collections.synchronizedMap(enumMap);
-				HANDLERS.put(entryEventHandlers.getKey(), eventHandlers);
-			}
+	/**
+	 * Register the given event listeners for events handling. The handlers of all
+	 * the listeners are grouped by event class, so that the dispatch table of each
+	 * event class is updated once.
+	 * 
+	 * @param eventListeners The listeners that gather event handlers.
+	 */
+	public static void registerListeners(Collection<? extends IEventListener> eventListeners) {
+		DEFAULT.registerListeners(eventListeners);
+	}
 
-			for (Handler handler : entryEventHandlers.getValue())
-				eventHandlers.get(handler.getPriority()).add(handler);
-		}
+	/**
+	 * Register the given event listener for events handling, without preventing it
+	 * from being garbage collected. Once the listener has been collected, its
+	 * event handlers are removed automatically.
+	 * 
+	 * @param eventListener The listener that gather event handlers.
+	 */
+	public static void registerWeakListener(IEventListener eventListener) {
+		DEFAULT.registerWeakListener(eventListener);
 	}
 
 	/**
@@ -65,24 +61,77 @@ public class EventManager {
 	 * @param eventListener The listener that gather event handlers.
 	 */
 	public static void unregisterListener(IEventListener eventListener) {
-		Map<Class<? extends Event>, Queue<Handler>> eventHandlers = LISTENERS.remove(getListenerName(eventListener));
+		DEFAULT.unregisterListener(eventListener);
+	}
 
-		// Listener not registered
-		if (eventHandlers == null)
-			return;
+	/**
+	 * Unregister the given event listeners. The handlers of all the listeners are
+	 * grouped by event class, so that the dispatch table of each event class is
+	 * updated once.
+	 * 
+	 * @param eventListeners The listeners that gather event handlers.
+	 */
+	public static void unregisterListeners(Collection<? extends IEventListener> eventListeners) {
+		DEFAULT.unregisterListeners(eventListeners);
+	}
 
-		for (Map.Entry<Class<? extends Event>, Queue<Handler>> entryHandler : eventHandlers.entrySet()) {
-			Map<EventPriority, Queue<Handler>> handlersMap = HANDLERS.get(entryHandler.getKey());
+	/**
+	 * Get the mailbox in which events are buffered before being dispatched to the
+	 * given listener.
+	 * 
+	 * @param eventListener The listener whose mailbox is requested.
+	 * 
+	 * @return The mailbox of the listener, null if the listener is not registered
+	 *         or if its class is not annotated with {@link Mailbox}.
+	 */
+	public static ListenerMailbox getMailbox(IEventListener eventListener) {
+		return DEFAULT.getMailbox(eventListener);
+	}
 
-			// No handlers registered for the given event.
-			if (handlersMap == null)
-				return;
+	/**
+	 * Get the last called event of the given class. The class must be annotated
+	 * with {@link Sticky}.
+	 * 
+	 * @param eventClass The class of the event.
+	 * 
+	 * @return The last event that has not been cancelled, or null if there is
+	 *         none or if the class is not sticky.
+	 */
+	public static <T extends Event> T getLastEvent(Class<T> eventClass) {
+		return DEFAULT.getLastEvent(eventClass);
+	}
 
-			for (Handler handler : entryHandler.getValue()) {
-				Queue<Handler> handlers = handlersMap.get(handler.getPriority());
-				handlers.remove(handler);
-			}
-		}
+	/**
+	 * Get the last called event of the given class having the given routing key.
+	 * The class must be annotated with {@link Sticky} and implement
+	 * {@link IKeyedEvent}.
+	 * 
+	 * @param eventClass The class of the event.
+	 * @param routingKey The routing key of the event.
+	 * 
+	 * @return The last event that has not been cancelled, or null if there is
+	 *         none or if the class is not sticky.
+	 */
+	public static <T extends Event> T getLastEvent(Class<T> eventClass, String routingKey) {
+		return DEFAULT.getLastEvent(eventClass, routingKey);
+	}
+
+	/**
+	 * Set the monitor that records the invocations of the event handlers. When no
+	 * monitor is set, the invocations are not measured.
+	 * 
+	 * @param monitor The monitor to use, null in order to stop monitoring.
+	 */
+	public static void setMonitor(HandlerMonitor monitor) {
+		DEFAULT.setMonitor(monitor);
+	}
+
+	/**
+	 * @return The monitor that records the invocations of the event handlers, or
+	 *         null if the invocations are not monitored.
+	 */
+	public static HandlerMonitor getMonitor() {
+		return DEFAULT.getMonitor();
 	}
 
 	/**
@@ -93,8 +142,22 @@ public class EventManager {
 	 * @param event The event to fire.
 	 */
 	public static void callEvent(Event event) {
-		doCall(new EventCalledEvent(event));
-		doCall(event);
+		DEFAULT.callEvent(event);
+	}
+
+	/**
+	 * Fire an {@link EventCalledEvent} for each event, then fire the given events
+	 * and dispatch them among the event handlers. Consecutive events of the same
+	 * class are dispatched together: the handlers are resolved once for all of
+	 * them, handlers whose method takes a {@link java.util.List List} of events are called once
+	 * with the whole burst and the other handlers are called once per event. For
+	 * a burst, all events are dispatched to the handlers of a priority before
+	 * being dispatched to the handlers of the next priority.
+	 * 
+	 * @param events The events to fire.
+	 */
+	public static void callEvents(Collection<? extends Event> events) {
+		DEFAULT.callEvents(events);
 	}
 
 	/**
@@ -106,9 +169,7 @@ public class EventManager {
 	 * @param runnable The code to run if the event is not cancelled.
 	 */
 	public static void callEvent(Event event, Runnable runnable) {
-		callEvent(event);
-		if (!(event instanceof ICancellable) || !((ICancellable) event).isCancelled())
-			runnable.run();
+		DEFAULT.callEvent(event, runnable);
 	}
 
 	/**
@@ -120,7 +181,7 @@ public class EventManager {
 	 * @param posEvent The event to thrown at the end.
 	 */
 	public static void callEvent(Event preEvent, Event posEvent) {
-		callEvent(preEvent, () -> callEvent(posEvent));
+		DEFAULT.callEvent(preEvent, posEvent);
 	}
 
 	/**
@@ -133,11 +194,7 @@ public class EventManager {
 	 * @param posEvent The event to thrown at the end.
 	 */
 	public static void callEvent(Event preEvent, Runnable exe, Event posEvent) {
-		callEvent(preEvent);
-		if (!(preEvent instanceof ICancellable) || !((ICancellable) preEvent).isCancelled()) {
-			exe.run();
-			callEvent(posEvent);
-		}
+		DEFAULT.callEvent(preEvent, exe, posEvent);
 	}
 
 	/**
@@ -151,11 +208,7 @@ public class EventManager {
 	 * @param posEvent The event to thrown at the end.
 	 */
 	public static void callEvent(Event preEvent, Supplier<Boolean> exe, Event posEvent) {
-		callEvent(preEvent);
-		if (!(preEvent instanceof ICancellable) || !((ICancellable) preEvent).isCancelled()) {
-			if (exe.get())
-				callEvent(posEvent);
-		}
+		DEFAULT.callEvent(preEvent, exe, posEvent);
 	}
 
 	/**
@@ -170,90 +223,6 @@ public class EventManager {
 	 *                 object.
 	 */
 	public static <T> T callEvent(Event preEvent, Supplier<T> exe, Function<T, Event> postEvent) {
-		callEvent(preEvent);
-		if (!(preEvent instanceof ICancellable) || !((ICancellable) preEvent).isCancelled()) {
-			T result = exe.get();
-			callEvent(postEvent.apply(result));
-			return result;
-		}
-		return null;
-	}
-
-	private static Map<Class<? extends Event>, Queue<Handler>> createEventHandler(IEventListener eventListener) {
-		Map<Class<? extends Event>, Queue<Handler>> eventHandlersMap = new HashMap<Class<? extends Event>, Queue<Handler>>();
-
-		List<Method> methods = new ArrayList<Method>();
-		// private methods
-		methods.addAll(Arrays.asList(eventListener.getClass().getDeclaredMethods()));
-
-		// Iterating over public methods in order to extract event handlers.
-		for (Method method : methods) {
-			EventHandler eventHandler = method.getAnnotation(EventHandler.class);
-			if (eventHandler == null)
-				continue;
-
-			// Do not register bridge or synthetic methods to avoid event duplication
-			if (method.isBridge() || method.isSynthetic())
-				continue;
-
-			final Class<?> checkClass;
-			if (method.getParameterTypes().length != 1
-					|| !Event.class.isAssignableFrom(checkClass = method.getParameterTypes()[0])) {
-				String message = String.format("%s attempt to register an invalid event handler method signature %s",
-						eventListener.getListenerName(), method.toGenericString());
-				throw new EventRegistrationException(message);
-			}
-
-			// Get or create the list of event handler registered for the event.
-			Class<? extends Event> eventClass = checkClass.asSubclass(Event.class);
-			method.setAccessible(true);
-			Queue<Handler> eventHandlerList = eventHandlersMap.get(eventClass);
-			if (eventHandlerList == null) {
-				eventHandlerList = new ConcurrentLinkedQueue<>();
-				eventHandlersMap.put(eventClass, eventHandlerList);
-			}
-
-			// Checking if event is deprecated.
-			for (Class<?> clazz = eventClass; Event.class.isAssignableFrom(clazz); clazz = clazz.getSuperclass()) {
-				if (clazz.getAnnotation(Deprecated.class) != null)
-					throw new EventRegistrationException(
-							String.format("%s is a deprecated event", eventClass.getSimpleName()));
-			}
-
-			eventHandlerList.add(new Handler(eventListener, eventHandler, method));
-		}
-		return eventHandlersMap;
-	}
-
-	private static void doCall(Event event) {
-		Map<EventPriority, Queue<Handler>> handlersMap = HANDLERS.get(event.getClass());
-
-		// No handlers registered for the given event.
-		if (handlersMap == null)
-			return;
-
-		Iterator<Map.Entry<EventPriority, Queue<Handler>>> handlerIterator = handlersMap.entrySet().iterator();
-		while (handlerIterator.hasNext()) {
-			Map.Entry<EventPriority, Queue<Handler>> entry = handlerIterator.next();
-			for (Handler handler : entry.getValue()) {
-				try {
-					handler.handle(event);
-				} catch (Exception e) {
-					e.printStackTrace();
-				}
-			}
-		}
-	}
-
-	/**
-	 * Creates a unique listener name for the given listener.
-	 * 
-	 * @param listener The listener used to create a unique name.
-	 * 
-	 * @return The following string :
-	 *         <code>&lt;listenerName&gt;@&lt;hashcode&gt;</code>
-	 */
-	private static String getListenerName(IEventListener listener) {
-		return String.format("%s@%s", listener.getListenerName(), listener.hashCode());
+		return DEFAULT.callEvent(preEvent, exe, postEvent);
 	}
 }
@@ -0,0 +1,84 @@
+package fr.pederobien.utils.event;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Supplier;
+
+public class EventRecycler<T extends PooledEvent> {
+	private Supplier<T> factory;
+	private BlockingQueue<T> pool;
+	private volatile boolean debug;
+
+	/**
+	 * Creates a pool of events of the same class. Events are created on demand and
+	 * go back to the pool once they have been published, so that publishing an
+	 * event does not allocate once the pool is warm.
+	 * 
+	 * @param factory  The function used to create a new event when the pool is
+	 *                 empty.
+	 * @param capacity The maximum number of events kept in the pool, released
+	 *                 events are discarded when the pool is full.
+	 */
+	public EventRecycler(Supplier<T> factory, int capacity) {
+		if (capacity <= 0)
+			throw new IllegalArgumentException("The capacity of the pool must be positive");
+
+		this.factory = factory;
+		pool = new ArrayBlockingQueue<T>(capacity);
+	}
+
+	/**
+	 * Get an event from the pool, or creates a new one if the pool is empty. The
+	 * caller owns the event until it has been published, the ownership is then
+	 * transferred to the event bus.
+	 * 
+	 * @return A reset event.
+	 */
+	public T acquire() {
+		T event = debug ? null : pool.poll();
+		if (event == null)
+			event = factory.get();
+
+		event.acquire(this);
+		return event;
+	}
+
+	/**
+	 * Set the debug mode of this recycler. In debug mode, released events are
+	 * never reused so that a handler retaining an event gets an
+	 * {@link IllegalStateException} when reading it, provided that the accessors of
+	 * the event check it has not been released.
+	 * 
+	 * @param debug True in order to enable the debug mode.
+	 */
+	public void setDebug(boolean debug) {
+		this.debug = debug;
+		if (debug)
+			pool.clear();
+	}
+
+	/**
+	 * @return True if this recycler is in debug mode.
+	 */
+	public boolean isDebug() {
+		return debug;
+	}
+
+	/**
+	 * @return The number of events available in the pool.
+	 */
+	public int getPoolSize() {
+		return pool.size();
+	}
+
+	/**
+	 * Put the given event back in the pool.
+	 * 
+	 * @param event The released event.
+	 */
+	@SuppressWarnings("unchecked")
+	void recycle(PooledEvent event) {
+		if (!debug)
+			pool.offer((T) event);
+	}
+}
@@ -0,0 +1,122 @@
+package fr.pederobien.utils.event;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import fr.pederobien.utils.ReadableByteWrapper;
+
+public class EventReplayer {
+	private Path directory;
+	private EventCodecs codecs;
+
+	/**
+	 * Creates a replayer that reads the events recorded by an {@link EventJournal}
+	 * in order to call them again. The events whose type identifier has no codec
+	 * are skipped.
+	 * 
+	 * @param directory The directory in which the segments have been created.
+	 * @param codecs    The codecs used to record the events.
+	 */
+	public EventReplayer(Path directory, EventCodecs codecs) {
+		this.directory = directory;
+		this.codecs = codecs;
+	}
+
+	/**
+	 * Call the recorded events on the given bus, in the order they have been
+	 * recorded.
+	 * 
+	 * @param bus            The bus on which the events are called.
+	 * @param originalTiming True in order to wait between two events as long as
+	 *                       between their original call, false in order to call
+	 *                       the events as fast as possible.
+	 * 
+	 * @return The number of called events.
+	 * 
+	 * @throws IOException          If a segment cannot be read.
+	 * @throws InterruptedException If the current thread has been interrupted
+	 *                              while waiting for the next event.
+	 */
+	public long replay(IEventBus bus, boolean originalTiming) throws IOException, InterruptedException {
+		long count = 0, firstTime = -1, start = System.nanoTime();
+		for (Path path : getSegments()) {
+			MappedByteBuffer buffer = map(path);
+
+			int position = 0;
+			while (position <= buffer.limit() - Integer.BYTES) {
+				int length = buffer.getInt(position);
+
+				// No more records in this segment
+				if (length <= 0)
+					break;
+
+				byte[] record = new byte[length];
+				buffer.get(position + Integer.BYTES, record);
+				position += Integer.BYTES + length;
+
+				ReadableByteWrapper wrapper = ReadableByteWrapper.wrap(record);
+				EventCodecs.Entry<?> entry = codecs.get((int) wrapper.nextVarLong());
+				long time = wrapper.nextVarLong();
+				if (entry == null)
+					continue;
+
+				Event event = entry.decode(wrapper);
+				if (originalTiming) {
+					if (firstTime < 0)
+						firstTime = time;
+
+					long delay = (time - firstTime) - (System.nanoTime() - start);
+					if (delay > 0)
+						TimeUnit.NANOSECONDS.sleep(delay);
+				}
+
+				bus.callEvent(event);
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Call the recorded events on the default bus of the {@link EventManager}.
+	 * 
+	 * @param originalTiming True in order to wait between two events as long as
+	 *                       between their original call.
+	 * 
+	 * @return The number of called events.
+	 * 
+	 * @throws IOException          If a segment cannot be read.
+	 * @throws InterruptedException If the current thread has been interrupted.
+	 * 
+	 * @see #replay(IEventBus, boolean)
+	 */
+	public long replay(boolean originalTiming) throws IOException, InterruptedException {
+		return replay(EventManager.getDefault(), originalTiming);
+	}
+
+	/**
+	 * @return The segment files of the journal, sorted by index.
+	 * 
+	 * @throws IOException If the directory cannot be read.
+	 */
+	private List<Path> getSegments() throws IOException {
+		try (Stream<Path> stream = Files.list(directory)) {
+			return stream.filter(path -> path.getFileName().toString().endsWith(EventJournal.EXTENSION)).sorted().collect(Collectors.toList());
+		}
+	}
+
+	private static MappedByteBuffer map(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			return channel.map(MapMode.READ_ONLY, 0, channel.size());
+		}
+	}
+}
@@ -1,26 +1,120 @@
 package fr.pederobien.utils.event;
 
+import java.lang.ref.WeakReference;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 import fr.pederobien.utils.ICancellable;
 
 public class Handler {
 	private IEventListener eventListener;
-	private EventHandler eventHandler;
-	private Method method;
+	private WeakReference<IEventListener> reference;
+	private HandlerDescriptor descriptor;
+	private ListenerMailbox mailbox;
+	private String name;
 
 	public Handler(IEventListener eventListener, EventHandler eventHandler, Method method) {
+		this(eventListener, ListenerIndex.createDescriptor(eventListener.getListenerName(), eventHandler, method), null);
+	}
+
+	/**
+	 * Creates a handler based on the description of an event handler method of the
+	 * listener class.
+	 * 
+	 * @param eventListener The listener that gather event handlers.
+	 * @param descriptor    The description of the event handler method.
+	 * @param mailbox       The mailbox of the listener, null if events should be
+	 *                      dispatched synchronously.
+	 */
+	Handler(IEventListener eventListener, HandlerDescriptor descriptor, ListenerMailbox mailbox) {
 		this.eventListener = eventListener;
-		this.eventHandler = eventHandler;
-		this.method = method;
+		this.descriptor = descriptor;
+		this.mailbox = mailbox;
+	}
+
+	/**
+	 * Creates a handler that does not prevent its listener from being garbage
+	 * collected. Once the listener has been collected, events are not handled
+	 * anymore.
+	 * 
+	 * @param reference  The weak reference to the listener.
+	 * @param descriptor The description of the event handler method.
+	 * @param mailbox    The mailbox of the listener, null if events should be
+	 *                   dispatched synchronously.
+	 */
+	Handler(WeakReference<IEventListener> reference, HandlerDescriptor descriptor, ListenerMailbox mailbox) {
+		this.reference = reference;
+		this.descriptor = descriptor;
+		this.mailbox = mailbox;
 	}
 
 	/**
 	 * @return The priority of the underlying event handler.
 	 */
 	EventPriority getPriority() {
-		return eventHandler.priority();
+		return descriptor.getPriority();
+	}
+
+	/**
+	 * @return The name of this handler, composed of the listener name, the method
+	 *         name and the class of the handled event.
+	 */
+	String getName() {
+		if (name == null) {
+			IEventListener listener = getListener();
+			String listenerName = listener == null ? "<collected>" : listener.getListenerName();
+			name = String.format("%s.%s(%s)", listenerName, descriptor.getMethodName(), descriptor.getEventClass().getSimpleName());
+		}
+		return name;
+	}
+
+	/**
+	 * @return The listener that declares the event handler method, null if the
+	 *         listener is weakly referenced and has been garbage collected.
+	 */
+	IEventListener getListener() {
+		return reference == null ? eventListener : reference.get();
+	}
+
+	/**
+	 * @return The mailbox in which events are buffered before being handled, null
+	 *         if events are handled synchronously.
+	 */
+	ListenerMailbox getMailbox() {
+		return mailbox;
+	}
+
+	/**
+	 * @return True if the underlying method takes a list of events, false if it
+	 *         takes a single event.
+	 */
+	boolean isBatch() {
+		return descriptor.isBatch();
+	}
+
+	/**
+	 * @return True if the handler is not run for cancelled events.
+	 */
+	boolean isIgnoreCancelled() {
+		return descriptor.isIgnoreCancelled();
+	}
+
+	/**
+	 * @return The routing keys of the handled events, empty if the handler
+	 *         receives all events.
+	 */
+	String[] getKeys() {
+		return descriptor.getKeys();
+	}
+
+	/**
+	 * @return True if the handler only receives the events of some routing keys.
+	 */
+	boolean isKeyed() {
+		return descriptor.isKeyed();
 	}
 
 	/**
@@ -54,9 +148,57 @@ public class Handler {
 	 */
 	public void handle(Event event) throws IllegalAccessException, IllegalArgumentException, InvocationTargetException {
 		if (event instanceof ICancellable)
-			if (((ICancellable) event).isCancelled() && eventHandler.ignoreCancelled())
+			if (((ICancellable) event).isCancelled() && descriptor.isIgnoreCancelled())
 				return;
 
-		method.invoke(eventListener, event);
+		invoke(descriptor.isBatch() ? Collections.singletonList(event) : event);
+	}
+
+	/**
+	 * Handle the specified events, of the same class, by running the associated
+	 * handler once. Cancelled events are removed from the list if the handler
+	 * ignores them.
+	 * 
+	 * @param events The events to handle.
+	 * 
+	 * @see #handle(Event)
+	 */
+	void handle(List<Event> events) throws IllegalAccessException, IllegalArgumentException, InvocationTargetException {
+		List<Event> accepted = events;
+		if (descriptor.isIgnoreCancelled() && events.get(0) instanceof ICancellable) {
+			accepted = new ArrayList<Event>(events.size());
+			for (Event event : events)
+				if (!((ICancellable) event).isCancelled())
+					accepted.add(event);
+
+			if (accepted.isEmpty())
+				return;
+
+			accepted = Collections.unmodifiableList(accepted);
+		}
+
+		invoke(accepted);
+	}
+
+	/**
+	 * Invoke the event handler method. Exceptions thrown by a method invoked
+	 * directly are wrapped in the same way as a method invoked by reflection.
+	 * 
+	 * @param argument The event or the list of events to handle.
+	 */
+	private void invoke(Object argument) throws IllegalAccessException, IllegalArgumentException, InvocationTargetException {
+		IEventListener listener = getListener();
+
+		// The listener has been garbage collected, waiting for its handlers removal
+		if (listener == null)
+			return;
+
+		try {
+			descriptor.getInvoker().invoke(listener, argument);
+		} catch (IllegalAccessException | InvocationTargetException e) {
+			throw e;
+		} catch (Throwable e) {
+			throw new InvocationTargetException(e);
+		}
 	}
 }
@@ -0,0 +1,108 @@
+package fr.pederobien.utils.event;
+
+public class HandlerDescriptor {
+	private Class<? extends Event> eventClass;
+	private String methodName;
+	private EventPriority priority;
+	private boolean ignoreCancelled;
+	private boolean isBatch;
+	private String[] keys;
+	private IHandlerInvoker invoker;
+
+	/**
+	 * Creates the description of an event handler method declared by a listener
+	 * class.
+	 * 
+	 * @param eventClass      The class of the handled events.
+	 * @param methodName      The name of the event handler method.
+	 * @param priority        The priority of the event handler.
+	 * @param ignoreCancelled True if the handler ignores cancelled events.
+	 * @param isBatch         True if the method takes a list of events.
+	 * @param keys            The routing keys of the handled events, empty if the
+	 *                        handler receives all events.
+	 * @param invoker         The code that invokes the method, null if the method
+	 *                        should be invoked by reflection.
+	 */
+	public HandlerDescriptor(Class<? extends Event> eventClass, String methodName, EventPriority priority, boolean ignoreCancelled,
+			boolean isBatch, String[] keys, IHandlerInvoker invoker) {
+		this.eventClass = eventClass;
+		this.methodName = methodName;
+		this.priority = priority;
+		this.ignoreCancelled = ignoreCancelled;
+		this.isBatch = isBatch;
+		this.keys = keys;
+		this.invoker = invoker;
+	}
+
+	/**
+	 * @return The class of the handled events.
+	 */
+	public Class<? extends Event> getEventClass() {
+		return eventClass;
+	}
+
+	/**
+	 * @return The name of the event handler method.
+	 */
+	public String getMethodName() {
+		return methodName;
+	}
+
+	/**
+	 * @return The priority of the event handler.
+	 */
+	public EventPriority getPriority() {
+		return priority;
+	}
+
+	/**
+	 * @return True if the handler ignores cancelled events.
+	 */
+	public boolean isIgnoreCancelled() {
+		return ignoreCancelled;
+	}
+
+	/**
+	 * @return True if the method takes a list of events, false if it takes a single
+	 *         event.
+	 */
+	public boolean isBatch() {
+		return isBatch;
+	}
+
+	/**
+	 * @return The routing keys of the handled events, empty if the handler
+	 *         receives all events. The returned array must not be modified.
+	 */
+	public String[] getKeys() {
+		return keys;
+	}
+
+	/**
+	 * @return True if the handler only receives the events of some routing keys,
+	 *         that is if routing keys are defined and the handled event class
+	 *         implements {@link IKeyedEvent}.
+	 */
+	public boolean isKeyed() {
+		return keys.length > 0 && IKeyedEvent.class.isAssignableFrom(eventClass);
+	}
+
+	/**
+	 * @return The code that invokes the method, null if the method should be
+	 *         invoked by reflection.
+	 */
+	public IHandlerInvoker getInvoker() {
+		return invoker;
+	}
+
+	/**
+	 * Creates a copy of this descriptor with the given invoker.
+	 * 
+	 * @param invoker The code that invokes the method.
+	 * 
+	 * @return A new descriptor.
+	 */
+	HandlerDescriptor withInvoker(IHandlerInvoker invoker) {
+		return new HandlerDescriptor(eventClass, methodName, priority, ignoreCancelled, isBatch, keys, invoker);
+	}
+}
@@ -0,0 +1,114 @@
+package fr.pederobien.utils.event;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+public class HandlerMonitor {
+	private long budget;
+	private BiConsumer<HandlerStatistics, Long> onBudgetExceeded;
+	private Map<String, HandlerStatistics> statistics;
+
+	/**
+	 * Creates a monitor that records, for each event handler, the number of
+	 * invocations, the number of exceptions and the latency of the invocations.
+	 * Handlers are identified by their listener name, method name and event class,
+	 * so that the handlers of several instances of the same listener class are
+	 * aggregated.
+	 * 
+	 * @param budget           The maximum duration, in nanoseconds, of an
+	 *                         invocation before the given hook is called. 0 in
+	 *                         order to not check the duration of invocations.
+	 * @param onBudgetExceeded The code to run when an invocation has exceeded the
+	 *                         budget, with the statistics of the handler and the
+	 *                         duration of the invocation.
+	 */
+	public HandlerMonitor(long budget, BiConsumer<HandlerStatistics, Long> onBudgetExceeded) {
+		this.budget = budget;
+		this.onBudgetExceeded = onBudgetExceeded;
+
+		statistics = new ConcurrentHashMap<String, HandlerStatistics>();
+	}
+
+	/**
+	 * Creates a monitor that records, for each event handler, the number of
+	 * invocations, the number of exceptions and the latency of the invocations.
+	 */
+	public HandlerMonitor() {
+		this(0, null);
+	}
+
+	/**
+	 * @return A copy of the statistics of each invoked event handler.
+	 */
+	public List<HandlerStatistics> getStatistics() {
+		List<HandlerStatistics> snapshot = new ArrayList<HandlerStatistics>();
+		for (HandlerStatistics handlerStatistics : statistics.values())
+			snapshot.add(handlerStatistics.snapshot());
+		return snapshot;
+	}
+
+	/**
+	 * Get the statistics of an event handler.
+	 * 
+	 * @param name The name of the event handler.
+	 * 
+	 * @return A copy of the statistics of the handler, or null if the handler has
+	 *         not been invoked.
+	 */
+	public HandlerStatistics getStatistics(String name) {
+		HandlerStatistics handlerStatistics = statistics.get(name);
+		return handlerStatistics == null ? null : handlerStatistics.snapshot();
+	}
+
+	/**
+	 * Remove the statistics of all event handlers.
+	 */
+	public void reset() {
+		statistics.clear();
+	}
+
+	/**
+	 * Handle the given event and record the invocation.
+	 * 
+	 * @param handler The handler to invoke.
+	 * @param event   The event to handle.
+	 */
+	void handle(Handler handler, Event event) throws Exception {
+		long start = System.nanoTime();
+		boolean failed = true;
+		try {
+			handler.handle(event);
+			failed = false;
+		} finally {
+			record(handler, System.nanoTime() - start, failed);
+		}
+	}
+
+	/**
+	 * Handle the given events and record the invocation.
+	 * 
+	 * @param handler The handler to invoke.
+	 * @param events  The events to handle.
+	 */
+	void handle(Handler handler, List<Event> events) throws Exception {
+		long start = System.nanoTime();
+		boolean failed = true;
+		try {
+			handler.handle(events);
+			failed = false;
+		} finally {
+			record(handler, System.nanoTime() - start, failed);
+		}
+	}
+
+	private void record(Handler handler, long duration, boolean failed) {
+		HandlerStatistics handlerStatistics = statistics.computeIfAbsent(handler.getName(), HandlerStatistics::new);
+		handlerStatistics.record(duration, failed);
+
+		if (budget > 0 && duration > budget && onBudgetExceeded != null)
+			onBudgetExceeded.accept(handlerStatistics, duration);
+	}
+}
@@ -0,0 +1,123 @@
+package fr.pederobien.utils.event;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+class HandlerRegistry {
+	private Map<Class<? extends Event>, PriorityHandlers> handlers;
+	private Map<Class<? extends Event>, Map<String, PriorityHandlers>> keyedHandlers;
+
+	/**
+	 * Creates a registry that associates an event class to the event handlers,
+	 * sorted by priority, to which the events should be dispatched. Handlers with
+	 * routing keys are indexed by key, so that a keyed event is only dispatched to
+	 * the handlers of its key in addition to the handlers without keys.
+	 */
+	HandlerRegistry() {
+		handlers = new ConcurrentHashMap<Class<? extends Event>, PriorityHandlers>();
+		keyedHandlers = new ConcurrentHashMap<Class<? extends Event>, Map<String, PriorityHandlers>>();
+	}
+
+	/**
+	 * Register the given handlers for the given event class.
+	 * 
+	 * @param eventClass  The class of the handled events.
+	 * @param newHandlers The handlers to register.
+	 */
+	void register(Class<? extends Event> eventClass, Collection<Handler> newHandlers) {
+		List<Handler> unkeyedHandlers = new ArrayList<Handler>(newHandlers.size());
+		for (Handler handler : newHandlers) {
+			// Routing keys are ignored if the event class is not keyed
+			if (!handler.isKeyed()) {
+				unkeyedHandlers.add(handler);
+				continue;
+			}
+
+			Map<String, PriorityHandlers> keyMap = keyedHandlers.computeIfAbsent(eventClass,
+					key -> new ConcurrentHashMap<String, PriorityHandlers>());
+			for (String routingKey : handler.getKeys()) {
+				keyMap.compute(routingKey, (key, eventHandlers) -> {
+					if (eventHandlers == null)
+						eventHandlers = new PriorityHandlers();
+					eventHandlers.add(handler);
+					return eventHandlers;
+				});
+			}
+		}
+
+		// Creating a new table if there is no event handler registered for the event.
+		if (!unkeyedHandlers.isEmpty())
+			handlers.computeIfAbsent(eventClass, key -> new PriorityHandlers()).addAll(unkeyedHandlers);
+	}
+
+	/**
+	 * Unregister the given handlers for the given event class.
+	 * 
+	 * @param eventClass  The class of the handled events.
+	 * @param oldHandlers The handlers to unregister.
+	 */
+	void unregister(Class<? extends Event> eventClass, Collection<Handler> oldHandlers) {
+		PriorityHandlers handlersMap = handlers.get(eventClass);
+		Map<String, PriorityHandlers> keyMap = keyedHandlers.get(eventClass);
+
+		if (handlersMap != null)
+			handlersMap.removeAll(oldHandlers);
+
+		for (Handler handler : oldHandlers) {
+			if (!handler.isKeyed())
+				continue;
+
+			// No keyed handlers registered for the given event.
+			if (keyMap == null)
+				continue;
+
+			// Removing the key from the index once it has no more handlers
+			for (String routingKey : handler.getKeys()) {
+				keyMap.computeIfPresent(routingKey, (key, eventHandlers) -> {
+					eventHandlers.remove(handler);
+					return eventHandlers.isEmpty() ? null : eventHandlers;
+				});
+			}
+		}
+	}
+
+	/**
+	 * Get the handlers registered for the given event class.
+	 * 
+	 * @param eventClass The class of the handled events.
+	 * 
+	 * @return The handlers sorted by priority, or null if no handler has ever been
+	 *         registered for the event class.
+	 */
+	PriorityHandlers get(Class<? extends Event> eventClass) {
+		return handlers.get(eventClass);
+	}
+
+	/**
+	 * Get the handlers registered for the given event class and routing key.
+	 * 
+	 * @param eventClass The class of the handled events.
+	 * @param routingKey The routing key of the handled events.
+	 * 
+	 * @return The handlers sorted by priority, or null if no handler is registered
+	 *         for the routing key.
+	 */
+	PriorityHandlers get(Class<? extends Event> eventClass, String routingKey) {
+		Map<String, PriorityHandlers> keyMap = keyedHandlers.get(eventClass);
+		return keyMap == null || routingKey == null ? null : keyMap.get(routingKey);
+	}
+
+	/**
+	 * @param eventClass The class of the handled events.
+	 * 
+	 * @return True if at least one handler with routing keys is registered for
+	 *         the given event class.
+	 */
+	boolean isKeyed(Class<? extends Event> eventClass) {
+		Map<String, PriorityHandlers> keyMap = keyedHandlers.get(eventClass);
+		return keyMap != null && !keyMap.isEmpty();
+	}
+}
@@ -0,0 +1,156 @@
+package fr.pederobien.utils.event;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+public class HandlerStatistics {
+	private static final int BUCKETS = 64;
+
+	private String name;
+	private LongAdder invocations, exceptions, totalTime;
+	private AtomicLong maxTime;
+	private AtomicLongArray histogram;
+
+	/**
+	 * Creates the statistics of an event handler. The latency histogram has one
+	 * bucket per power of two: the bucket i counts the invocations whose duration,
+	 * in nanoseconds, is in range [2^i, 2^(i+1)[.
+	 * 
+	 * @param name The name of the event handler.
+	 */
+	HandlerStatistics(String name) {
+		this.name = name;
+
+		invocations = new LongAdder();
+		exceptions = new LongAdder();
+		totalTime = new LongAdder();
+		maxTime = new AtomicLong();
+		histogram = new AtomicLongArray(BUCKETS);
+	}
+
+	/**
+	 * @return The name of the event handler, composed of the listener name, the
+	 *         method name and the event class.
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return The number of times the event handler has been invoked.
+	 */
+	public long getInvocations() {
+		return invocations.sum();
+	}
+
+	/**
+	 * @return The number of invocations of the event handler that have thrown an
+	 *         exception.
+	 */
+	public long getExceptions() {
+		return exceptions.sum();
+	}
+
+	/**
+	 * @return The cumulative duration, in nanoseconds, of the invocations.
+	 */
+	public long getTotalTime() {
+		return totalTime.sum();
+	}
+
+	/**
+	 * @return The duration, in nanoseconds, of the longest invocation.
+	 */
+	public long getMaxTime() {
+		return maxTime.get();
+	}
+
+	/**
+	 * @return The mean duration, in nanoseconds, of an invocation.
+	 */
+	public long getMeanTime() {
+		long count = getInvocations();
+		return count == 0 ? 0 : getTotalTime() / count;
+	}
+
+	/**
+	 * @return A copy of the latency histogram, the bucket i counts the invocations
+	 *         whose duration, in nanoseconds, is in range [2^i, 2^(i+1)[.
+	 */
+	public long[] getHistogram() {
+		long[] copy = new long[BUCKETS];
+		for (int i = 0; i < BUCKETS; i++)
+			copy[i] = histogram.get(i);
+		return copy;
+	}
+
+	/**
+	 * Estimates the duration under which the given percentage of invocations have
+	 * completed. The estimation is the upper bound of the histogram bucket in which
+	 * the percentile falls, capped by the maximum duration.
+	 * 
+	 * @param percentile The percentile, in range ]0, 100].
+	 * 
+	 * @return The estimated duration in nanoseconds.
+	 * 
+	 * @throws IllegalArgumentException If the percentile is not in range ]0, 100].
+	 */
+	public long getPercentile(double percentile) {
+		if (!(percentile > 0 && percentile <= 100))
+			throw new IllegalArgumentException("The percentile must be in range ]0, 100]");
+
+		long[] buckets = getHistogram();
+		long count = 0;
+		for (long bucket : buckets)
+			count += bucket;
+
+		if (count == 0)
+			return 0;
+
+		long threshold = (long) Math.ceil(count * percentile / 100.0);
+		long cumulative = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			cumulative += buckets[i];
+			if (cumulative >= threshold)
+				return Math.min(i == BUCKETS - 1 ? Long.MAX_VALUE : (1L << (i + 1)) - 1, getMaxTime());
+		}
+		return getMaxTime();
+	}
+
+	/**
+	 * @return A copy of these statistics that is not updated anymore.
+	 */
+	HandlerStatistics snapshot() {
+		HandlerStatistics snapshot = new HandlerStatistics(name);
+		snapshot.invocations.add(getInvocations());
+		snapshot.exceptions.add(getExceptions());
+		snapshot.totalTime.add(getTotalTime());
+		snapshot.maxTime.set(getMaxTime());
+		for (int i = 0; i < BUCKETS; i++)
+			snapshot.histogram.set(i, histogram.get(i));
+		return snapshot;
+	}
+
+	/**
+	 * Record an invocation of the event handler.
+	 * 
+	 * @param duration The duration, in nanoseconds, of the invocation.
+	 * @param failed   True if the invocation has thrown an exception.
+	 */
+	void record(long duration, boolean failed) {
+		invocations.increment();
+		if (failed)
+			exceptions.increment();
+
+		totalTime.add(duration);
+		maxTime.accumulateAndGet(duration, Math::max);
+		histogram.incrementAndGet(63 - Long.numberOfLeadingZeros(Math.max(duration, 1)));
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s[invocations=%s, exceptions=%s, mean=%sns, p99=%sns, max=%sns]", name, getInvocations(),
+				getExceptions(), getMeanTime(), getPercentile(99), getMaxTime());
+	}
+}
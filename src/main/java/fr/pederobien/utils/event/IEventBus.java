@@ -0,0 +1,204 @@
+package fr.pederobien.utils.event;
+
+import java.util.Collection;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import fr.pederobien.utils.ICancellable;
+
+public interface IEventBus {
+
+	/**
+	 * Register the given event listener for events handling. There is no mechanism
+	 * to check if the listener is already registered or not. If the listener class
+	 * is annotated with {@link Mailbox}, the events are dispatched asynchronously
+	 * to its event handlers.
+	 * 
+	 * @param eventListener The listener that gather event handlers.
+	 */
+	void registerListener(IEventListener eventListener);
+
+	/**
+	 * Register the given event listeners for events handling. The handlers of all
+	 * the listeners are grouped by event class, so that the dispatch table of each
+	 * event class is updated once.
+	 * 
+	 * @param eventListeners The listeners that gather event handlers.
+	 */
+	void registerListeners(Collection<? extends IEventListener> eventListeners);
+
+	/**
+	 * Register the given event listener for events handling, without preventing it
+	 * from being garbage collected. Once the listener has been collected, its
+	 * event handlers are removed automatically.
+	 * 
+	 * @param eventListener The listener that gather event handlers.
+	 */
+	void registerWeakListener(IEventListener eventListener);
+
+	/**
+	 * Unregister the given event listener.
+	 * 
+	 * @param eventListener The listener that gather event handlers.
+	 */
+	void unregisterListener(IEventListener eventListener);
+
+	/**
+	 * Unregister the given event listeners. The handlers of all the listeners are
+	 * grouped by event class, so that the dispatch table of each event class is
+	 * updated once.
+	 * 
+	 * @param eventListeners The listeners that gather event handlers.
+	 */
+	void unregisterListeners(Collection<? extends IEventListener> eventListeners);
+
+	/**
+	 * Get the mailbox in which events are buffered before being dispatched to the
+	 * given listener.
+	 * 
+	 * @param eventListener The listener whose mailbox is requested.
+	 * 
+	 * @return The mailbox of the listener, null if the listener is not registered
+	 *         or if its class is not annotated with {@link Mailbox}.
+	 */
+	ListenerMailbox getMailbox(IEventListener eventListener);
+
+	/**
+	 * Fire an {@link EventCalledEvent} first, then fire the given event and
+	 * dispatch it among the event handlers.
+	 * 
+	 * @param event The event to fire.
+	 */
+	void callEvent(Event event);
+
+	/**
+	 * Fire an {@link EventCalledEvent} for each event, then fire the given events
+	 * and dispatch them among the event handlers. Consecutive events of the same
+	 * class are dispatched together.
+	 * 
+	 * @param events The events to fire.
+	 */
+	void callEvents(Collection<? extends Event> events);
+
+	/**
+	 * Get the last called event of the given class. The class must be annotated
+	 * with {@link Sticky}.
+	 * 
+	 * @param eventClass The class of the event.
+	 * 
+	 * @return The last event that has not been cancelled, or null if there is
+	 *         none or if the class is not sticky.
+	 */
+	<T extends Event> T getLastEvent(Class<T> eventClass);
+
+	/**
+	 * Get the last called event of the given class having the given routing key.
+	 * The class must be annotated with {@link Sticky} and implement
+	 * {@link IKeyedEvent}.
+	 * 
+	 * @param eventClass The class of the event.
+	 * @param routingKey The routing key of the event.
+	 * 
+	 * @return The last event that has not been cancelled, or null if there is
+	 *         none or if the class is not sticky.
+	 */
+	<T extends Event> T getLastEvent(Class<T> eventClass, String routingKey);
+
+	/**
+	 * Fire the event among the event handlers and run the given runnable if the
+	 * given event class does not implements {@link ICancellable} interface of if
+	 * the event has not been cancelled.
+	 * 
+	 * @param event    The event to fire.
+	 * @param runnable The code to run if the event is not cancelled.
+	 */
+	default void callEvent(Event event, Runnable runnable) {
+		if (callAndCheck(event))
+			runnable.run();
+	}
+
+	/**
+	 * First fire the preEvent among the event, then fire the postEvent if the given
+	 * <code>preEvent</code> class does not implements {@link ICancellable}
+	 * interface of if the event has not been cancelled.
+	 * 
+	 * @param preEvent The event to thrown first.
+	 * @param posEvent The event to thrown at the end.
+	 */
+	default void callEvent(Event preEvent, Event posEvent) {
+		callEvent(preEvent, () -> callEvent(posEvent));
+	}
+
+	/**
+	 * First fire the preEvent among the event, then run the given exe if the given
+	 * event class does not implements {@link ICancellable} interface of if the
+	 * event has not been cancelled and finally fire the postEvent.
+	 * 
+	 * @param preEvent The event to thrown first.
+	 * @param exe      The code to execute if the event has not been cancelled.
+	 * @param posEvent The event to thrown at the end.
+	 */
+	default void callEvent(Event preEvent, Runnable exe, Event posEvent) {
+		if (callAndCheck(preEvent)) {
+			exe.run();
+			callEvent(posEvent);
+		}
+	}
+
+	/**
+	 * First fire the preEvent among the event, then run the given exe if the given
+	 * event class does not implements {@link ICancellable} interface of if the
+	 * event has not been cancelled and finally fire the postEvent.
+	 * 
+	 * @param preEvent The event to thrown first.
+	 * @param exe      The code to execute if the event has not been cancelled and
+	 *                 specify if the post event should be thrown or not.
+	 * @param posEvent The event to thrown at the end.
+	 */
+	default void callEvent(Event preEvent, Supplier<Boolean> exe, Event posEvent) {
+		if (callAndCheck(preEvent)) {
+			if (exe.get())
+				callEvent(posEvent);
+		}
+	}
+
+	/**
+	 * First fire the preEvent among the event, then run the given exe if the given
+	 * event class does not implements {@link ICancellable} interface of if the
+	 * event has not been cancelled and finally fire the postEvent.
+	 * 
+	 * @param preEvent The event to thrown first.
+	 * @param exe      The code to execute if the event has not been cancelled and
+	 *                 specify the type of the created object.
+	 * @param posEvent A function to create the postEvent depending on the created
+	 *                 object.
+	 */
+	default <T> T callEvent(Event preEvent, Supplier<T> exe, Function<T, Event> postEvent) {
+		if (callAndCheck(preEvent)) {
+			T result = exe.get();
+			callEvent(postEvent.apply(result));
+			return result;
+		}
+		return null;
+	}
+
+	/**
+	 * Fire the given event among the event handlers and check if it has been
+	 * cancelled. A pooled event is retained until it has been checked, so that it
+	 * is not recycled meanwhile.
+	 * 
+	 * @param event The event to fire.
+	 * 
+	 * @return True if the event does not implement {@link ICancellable} or if it
+	 *         has not been cancelled.
+	 */
+	private boolean callAndCheck(Event event) {
+		PooledEvent.retainIfPooled(event);
+		try {
+			callEvent(event);
+			return !(event instanceof ICancellable) || !((ICancellable) event).isCancelled();
+		} finally {
+			PooledEvent.releaseIfPooled(event);
+		}
+	}
+}
@@ -0,0 +1,24 @@
+package fr.pederobien.utils.event;
+
+import fr.pederobien.utils.ByteWrapper;
+import fr.pederobien.utils.ReadableByteWrapper;
+
+public interface IEventCodec<T extends Event> {
+
+	/**
+	 * Write the data of the given event in the given wrapper.
+	 * 
+	 * @param event   The event to encode.
+	 * @param wrapper The wrapper in which the event is written.
+	 */
+	void encode(T event, ByteWrapper wrapper);
+
+	/**
+	 * Creates an event from the data written by {@link #encode(Event, ByteWrapper)}.
+	 * 
+	 * @param wrapper The wrapper from which the event is read.
+	 * 
+	 * @return The decoded event.
+	 */
+	T decode(ReadableByteWrapper wrapper);
+}
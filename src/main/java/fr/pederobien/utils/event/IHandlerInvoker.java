@@ -0,0 +1,15 @@
+package fr.pederobien.utils.event;
+
+@FunctionalInterface
+public interface IHandlerInvoker {
+
+	/**
+	 * Invoke an event handler method on the given listener.
+	 * 
+	 * @param listener The listener that declares the event handler method.
+	 * @param argument The event, or the list of events for a batch event handler.
+	 * 
+	 * @throws Throwable If the event handler method throws an exception.
+	 */
+	void invoke(IEventListener listener, Object argument) throws Throwable;
+}
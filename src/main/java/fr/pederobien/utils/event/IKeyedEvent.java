@@ -0,0 +1,16 @@
+package fr.pederobien.utils.event;
+
+/**
+ * Interface for events that are only relevant to a subset of the handlers of
+ * their class. Event handlers declaring routing keys with
+ * {@link EventHandler#keys()} only receive the events whose routing key is one
+ * of them, event handlers without routing keys receive all events.
+ */
+public interface IKeyedEvent {
+
+	/**
+	 * @return The key used to route this event, null if this event should only be
+	 *         dispatched to the event handlers without routing keys.
+	 */
+	String getRoutingKey();
+}
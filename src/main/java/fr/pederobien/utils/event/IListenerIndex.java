@@ -0,0 +1,24 @@
+package fr.pederobien.utils.event;
+
+import java.util.List;
+
+/**
+ * Interface implemented by the handler tables generated at compile time by the
+ * {@link EventIndexProcessor}. A table is generated for each listener class
+ * that declares event handler methods, its name is the binary name of the
+ * listener class followed by {@value #SUFFIX}.
+ */
+public interface IListenerIndex {
+
+	/**
+	 * The suffix appended to the binary name of a listener class to get the name
+	 * of its generated handler table.
+	 */
+	public static final String SUFFIX = "_EventIndex";
+
+	/**
+	 * @return The descriptors of the event handler methods declared by the listener
+	 *         class.
+	 */
+	List<HandlerDescriptor> getDescriptors();
+}
@@ -0,0 +1,19 @@
+package fr.pederobien.utils.event;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+
+public interface ILogSink extends Flushable, Closeable {
+
+	/**
+	 * Writes the given text. The text may be buffered until this sink is flushed.
+	 * This method is called by the thread of the logger, or by the threads that
+	 * write logs if this sink is the overflow sink of the logger.
+	 * 
+	 * @param text The text to write.
+	 * 
+	 * @throws IOException If an I/O error occurs.
+	 */
+	void write(CharSequence text) throws IOException;
+}
@@ -0,0 +1,23 @@
+package fr.pederobien.utils.event;
+
+import java.util.function.BooleanSupplier;
+
+public interface IWaitStrategy {
+
+	/**
+	 * Make the current thread wait until the given condition is satisfied.
+	 * 
+	 * @param condition The condition to wait for.
+	 * 
+	 * @throws InterruptedException If the current thread has been interrupted while
+	 *                              waiting.
+	 */
+	void waitFor(BooleanSupplier condition) throws InterruptedException;
+
+	/**
+	 * Wake up the threads waiting for a condition that may now be satisfied. Since
+	 * it is called each time an event is published, it should return immediately
+	 * when no thread is waiting.
+	 */
+	void signalAll();
+}
@@ -0,0 +1,199 @@
+package fr.pederobien.utils.event;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+class ListenerIndex {
+	private static final ClassValue<List<HandlerDescriptor>> DESCRIPTORS;
+
+	static {
+		DESCRIPTORS = new ClassValue<List<HandlerDescriptor>>() {
+			@Override
+			protected List<HandlerDescriptor> computeValue(Class<?> listenerClass) {
+				return load(listenerClass);
+			}
+		};
+	}
+
+	/**
+	 * Get the descriptors of the event handler methods declared by the given
+	 * listener class. The table generated at compile time by the
+	 * {@link EventIndexProcessor} is used if it exists, otherwise the class is
+	 * scanned by reflection. In both cases, the result is cached for the class.
+	 * 
+	 * @param listenerClass The class of the listener.
+	 * 
+	 * @return An unmodifiable list of descriptors.
+	 * 
+	 * @throws EventRegistrationException If an event handler method has an invalid
+	 *                                    signature or handles a deprecated event.
+	 */
+	static List<HandlerDescriptor> get(Class<?> listenerClass) {
+		return DESCRIPTORS.get(listenerClass);
+	}
+
+	private static List<HandlerDescriptor> load(Class<?> listenerClass) {
+		IListenerIndex index = findIndex(listenerClass);
+		List<HandlerDescriptor> descriptors = index == null ? scan(listenerClass) : resolve(listenerClass, index.getDescriptors());
+
+		for (HandlerDescriptor descriptor : descriptors)
+			checkDeprecated(descriptor.getEventClass());
+
+		return Collections.unmodifiableList(descriptors);
+	}
+
+	/**
+	 * Get the handler table generated at compile time for the given listener
+	 * class.
+	 * 
+	 * @param listenerClass The class of the listener.
+	 * 
+	 * @return The generated table, or null if there is none.
+	 */
+	private static IListenerIndex findIndex(Class<?> listenerClass) {
+		try {
+			Class<?> indexClass = Class.forName(listenerClass.getName() + IListenerIndex.SUFFIX, true, listenerClass.getClassLoader());
+			if (!IListenerIndex.class.isAssignableFrom(indexClass))
+				return null;
+
+			return (IListenerIndex) indexClass.getDeclaredConstructor().newInstance();
+		} catch (ReflectiveOperationException | LinkageError e) {
+			// No table, or a stale one, has been generated: falling back on reflection
+			return null;
+		}
+	}
+
+	/**
+	 * Creates a reflective invoker for each generated descriptor whose method
+	 * cannot be invoked directly, typically private methods.
+	 * 
+	 * @param listenerClass The class of the listener.
+	 * @param generated     The descriptors of the generated table.
+	 * 
+	 * @return The descriptors, each one associated to an invoker.
+	 */
+	private static List<HandlerDescriptor> resolve(Class<?> listenerClass, List<HandlerDescriptor> generated) {
+		List<HandlerDescriptor> descriptors = new ArrayList<HandlerDescriptor>(generated.size());
+		for (HandlerDescriptor descriptor : generated) {
+			if (descriptor.getInvoker() != null) {
+				descriptors.add(descriptor);
+				continue;
+			}
+
+			Class<?> parameterClass = descriptor.isBatch() ? List.class : descriptor.getEventClass();
+			try {
+				Method method = listenerClass.getDeclaredMethod(descriptor.getMethodName(), parameterClass);
+				descriptors.add(descriptor.withInvoker(createInvoker(method)));
+			} catch (NoSuchMethodException e) {
+				String message = String.format("%s does not declare the event handler %s(%s)", listenerClass.getSimpleName(),
+						descriptor.getMethodName(), parameterClass.getSimpleName());
+				throw new EventRegistrationException(message);
+			}
+		}
+		return descriptors;
+	}
+
+	/**
+	 * Extract the event handler methods of the given listener class by reflection.
+	 * 
+	 * @param listenerClass The class of the listener.
+	 * 
+	 * @return The descriptors of the event handler methods.
+	 */
+	private static List<HandlerDescriptor> scan(Class<?> listenerClass) {
+		List<HandlerDescriptor> descriptors = new ArrayList<HandlerDescriptor>();
+
+		// Iterating over declared methods, including private ones, in order to
+		// extract event handlers.
+		for (Method method : listenerClass.getDeclaredMethods()) {
+			EventHandler eventHandler = method.getAnnotation(EventHandler.class);
+			if (eventHandler == null)
+				continue;
+
+			// Do not register bridge or synthetic methods to avoid event duplication
+			if (method.isBridge() || method.isSynthetic())
+				continue;
+
+			descriptors.add(createDescriptor(listenerClass.getSimpleName(), eventHandler, method));
+		}
+		return descriptors;
+	}
+
+	/**
+	 * Creates the descriptor of an event handler method by reflection.
+	 * 
+	 * @param listenerName The name of the listener that declares the method.
+	 * @param eventHandler The annotation of the method.
+	 * @param method       The event handler method.
+	 * 
+	 * @return The descriptor of the method.
+	 * 
+	 * @throws EventRegistrationException If the method has an invalid signature.
+	 */
+	static HandlerDescriptor createDescriptor(String listenerName, EventHandler eventHandler, Method method) {
+		final Class<?> checkClass;
+		if (method.getParameterTypes().length != 1 || !Event.class.isAssignableFrom(checkClass = getEventClass(method))) {
+			String message = String.format("%s attempt to register an invalid event handler method signature %s", listenerName,
+					method.toGenericString());
+			throw new EventRegistrationException(message);
+		}
+
+		Class<? extends Event> eventClass = checkClass.asSubclass(Event.class);
+		boolean isBatch = method.getParameterTypes()[0] == List.class;
+		return new HandlerDescriptor(eventClass, method.getName(), eventHandler.priority(), eventHandler.ignoreCancelled(), isBatch,
+				eventHandler.keys(), createInvoker(method));
+	}
+
+	/**
+	 * Creates an invoker that calls the given method by reflection.
+	 * 
+	 * @param method The event handler method.
+	 * 
+	 * @return The invoker of the method.
+	 */
+	private static IHandlerInvoker createInvoker(Method method) {
+		method.setAccessible(true);
+		return (listener, argument) -> method.invoke(listener, argument);
+	}
+
+	/**
+	 * Get the class of the event handled by the given method. For a batch event
+	 * handler, whose parameter is a {@link List}, it is the type argument of the
+	 * list.
+	 * 
+	 * @param method The event handler method.
+	 * 
+	 * @return The class of the handled event, or Object if it cannot be resolved.
+	 */
+	private static Class<?> getEventClass(Method method) {
+		Class<?> parameterClass = method.getParameterTypes()[0];
+		if (parameterClass != List.class)
+			return parameterClass;
+
+		Type type = method.getGenericParameterTypes()[0];
+		if (type instanceof ParameterizedType) {
+			Type argument = ((ParameterizedType) type).getActualTypeArguments()[0];
+			if (argument instanceof Class)
+				return (Class<?>) argument;
+		}
+		return Object.class;
+	}
+
+	/**
+	 * Checks if the given event class, or one of its super class, is deprecated.
+	 * 
+	 * @param eventClass The class of the handled events.
+	 * 
+	 * @throws EventRegistrationException If the event is deprecated.
+	 */
+	private static void checkDeprecated(Class<? extends Event> eventClass) {
+		for (Class<?> clazz = eventClass; Event.class.isAssignableFrom(clazz); clazz = clazz.getSuperclass()) {
+			if (clazz.getAnnotation(Deprecated.class) != null)
+				throw new EventRegistrationException(String.format("%s is a deprecated event", eventClass.getSimpleName()));
+		}
+	}
+}
@@ -0,0 +1,293 @@
+package fr.pederobien.utils.event;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import fr.pederobien.utils.Disposable;
+import fr.pederobien.utils.IDisposable;
+
+public class ListenerMailbox {
+	private EventBus bus;
+	private String name;
+	private int capacity;
+	private EMailboxOverflow overflow;
+	private Deque<Delivery> deliveries;
+	private ReentrantLock lock;
+	private Condition notEmpty, notFull;
+	private Thread mailboxThread;
+	private IDisposable disposable;
+	private int maxDepth;
+	private long delivered, dropped, coalesced;
+
+	/**
+	 * Creates a bounded mailbox in which events are buffered before being
+	 * dispatched, in order, to the event handlers of a listener.
+	 * 
+	 * @param bus      The bus that dispatches the events to the handlers.
+	 * @param name     The name of the mailbox, also used as thread name.
+	 * @param capacity The maximum number of pending events.
+	 * @param overflow The behavior of the mailbox when an event is posted while it
+	 *                 is full.
+	 */
+	ListenerMailbox(EventBus bus, String name, int capacity, EMailboxOverflow overflow) {
+		if (capacity <= 0)
+			throw new IllegalArgumentException(String.format("The capacity of the mailbox %s must be positive", name));
+
+		this.bus = bus;
+		this.name = name;
+		this.capacity = capacity;
+		this.overflow = overflow;
+
+		deliveries = new ArrayDeque<Delivery>(capacity);
+		lock = new ReentrantLock();
+		notEmpty = lock.newCondition();
+		notFull = lock.newCondition();
+
+		mailboxThread = new Thread(() -> internalStart(), name);
+		mailboxThread.setDaemon(true);
+
+		disposable = new Disposable();
+	}
+
+	/**
+	 * @return The name of this mailbox.
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return The maximum number of pending events.
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * @return The behavior of this mailbox when an event is posted while it is
+	 *         full.
+	 */
+	public EMailboxOverflow getOverflow() {
+		return overflow;
+	}
+
+	/**
+	 * @return The number of events waiting to be dispatched.
+	 */
+	public int getDepth() {
+		return locked(() -> deliveries.size());
+	}
+
+	/**
+	 * @return The highest number of events that have been waiting at the same time
+	 *         in this mailbox.
+	 */
+	public int getMaxDepth() {
+		return locked(() -> maxDepth);
+	}
+
+	/**
+	 * @return The number of events dispatched to the event handlers of the
+	 *         listener.
+	 */
+	public long getDelivered() {
+		return locked(() -> delivered);
+	}
+
+	/**
+	 * @return The number of events discarded because the mailbox was full.
+	 */
+	public long getDropped() {
+		return locked(() -> dropped);
+	}
+
+	/**
+	 * @return The number of pending events that have been replaced by a more
+	 *         recent event.
+	 */
+	public long getCoalesced() {
+		return locked(() -> coalesced);
+	}
+
+	/**
+	 * Start the underlying thread in order to dispatch the posted events.
+	 */
+	void start() {
+		disposable.checkDisposed();
+		mailboxThread.start();
+	}
+
+	/**
+	 * Appends the given event in this mailbox in order to be dispatched
+	 * asynchronously to the given handler.
+	 * 
+	 * @param handler The handler to which the event should be dispatched.
+	 * @param event   The event to dispatch.
+	 */
+	void post(Handler handler, Event event) {
+		if (disposable.isDisposed())
+			return;
+
+		// The event must not be recycled before being consumed by this mailbox
+		PooledEvent.retainIfPooled(event);
+
+		lock.lock();
+		try {
+			// The mailbox may have been disposed and emptied meanwhile
+			if (disposable.isDisposed()) {
+				PooledEvent.releaseIfPooled(event);
+				return;
+			}
+
+			if (deliveries.size() == capacity && !makeRoom(handler, event))
+				return;
+
+			deliveries.addLast(new Delivery(handler, event));
+			maxDepth = Math.max(maxDepth, deliveries.size());
+			notEmpty.signal();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Dispose this mailbox. The underlying thread is interrupted and the pending
+	 * events are discarded, this object is no more reusable.
+	 */
+	void dispose() {
+		if (!disposable.dispose())
+			return;
+
+		mailboxThread.interrupt();
+		lock.lock();
+		try {
+			for (Delivery delivery : deliveries)
+				PooledEvent.releaseIfPooled(delivery.event);
+			deliveries.clear();
+			notFull.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Apply the overflow policy of this mailbox. Must be called while holding the
+	 * lock.
+	 * 
+	 * @param handler The handler to which the event should be dispatched.
+	 * @param event   The event to dispatch.
+	 * 
+	 * @return True if the event should be appended, false if it has already been
+	 *         taken into account or if it should be discarded.
+	 */
+	private boolean makeRoom(Handler handler, Event event) {
+		switch (overflow) {
+		case BLOCK:
+			// The mailbox thread would wait for itself
+			if (Thread.currentThread() == mailboxThread)
+				return dropOldest();
+
+			try {
+				while (deliveries.size() == capacity && !disposable.isDisposed())
+					notFull.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				dropped++;
+				PooledEvent.releaseIfPooled(event);
+				return false;
+			}
+
+			if (disposable.isDisposed()) {
+				PooledEvent.releaseIfPooled(event);
+				return false;
+			}
+			return true;
+		case COALESCE:
+			Iterator<Delivery> iterator = deliveries.descendingIterator();
+			while (iterator.hasNext()) {
+				Delivery delivery = iterator.next();
+				if (delivery.handler == handler && delivery.event.getClass() == event.getClass()
+						&& Objects.equals(getRoutingKey(delivery.event), getRoutingKey(event))) {
+					iterator.remove();
+					PooledEvent.releaseIfPooled(delivery.event);
+					coalesced++;
+					return true;
+				}
+			}
+
+			// No pending event to replace
+			return dropOldest();
+		case DROP_OLDEST:
+		default:
+			return dropOldest();
+		}
+	}
+
+	private static String getRoutingKey(Event event) {
+		return event instanceof IKeyedEvent ? ((IKeyedEvent) event).getRoutingKey() : null;
+	}
+
+	private boolean dropOldest() {
+		PooledEvent.releaseIfPooled(deliveries.pollFirst().event);
+		dropped++;
+		return true;
+	}
+
+	private Delivery take() throws InterruptedException {
+		lock.lockInterruptibly();
+		try {
+			while (deliveries.isEmpty())
+				notEmpty.await();
+
+			Delivery delivery = deliveries.pollFirst();
+			delivered++;
+			notFull.signal();
+			return delivery;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void internalStart() {
+		while (!disposable.isDisposed()) {
+			try {
+				Delivery delivery = take();
+				bus.invoke(delivery.handler, delivery.event);
+				PooledEvent.releaseIfPooled(delivery.event);
+			} catch (InterruptedException e) {
+				// Mailbox has been disposed, nothing to do
+			}
+		}
+	}
+
+	private <T> T locked(Supplier<T> supplier) {
+		lock.lock();
+		try {
+			return supplier.get();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private static class Delivery {
+		private Handler handler;
+		private Event event;
+
+		/**
+		 * Creates a delivery that associates an event to the handler it should be
+		 * dispatched to.
+		 * 
+		 * @param handler The handler to which the event should be dispatched.
+		 * @param event   The event to dispatch.
+		 */
+		private Delivery(Handler handler, Event event) {
+			this.handler = handler;
+			this.event = event;
+		}
+	}
+}
@@ -0,0 +1,432 @@
+package fr.pederobien.utils.event;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.ToLongFunction;
+
+import fr.pederobien.utils.Disposable;
+import fr.pederobien.utils.EQueueOverflow;
+import fr.pederobien.utils.IDisposable;
+import fr.pederobien.utils.QueueOverflow;
+
+class LogWriter<T> {
+	private IRecordWriter<? super T> recordWriter;
+	private ToLongFunction<? super T> order;
+	private BlockingQueue<T> queue;
+	private List<ProducerBuffer<T>> buffers;
+	private ThreadLocal<ProducerBuffer<T>> localBuffer;
+	private volatile int bufferCapacity;
+	private volatile boolean isWaiting;
+	private QueueOverflow<T> overflow;
+	private List<ILogSink> sinks;
+	private volatile int flushSize;
+	private volatile long flushDelay;
+	private Thread thread;
+	private IDisposable disposable;
+
+	/**
+	 * Creates a thread that drains the pending records by batch and writes them to
+	 * the sinks. The sinks are flushed once the number of buffered characters, or
+	 * bytes for binary sinks, reaches the flush size, or once the oldest buffered
+	 * record has waited for the flush delay, so that the number of writes does not
+	 * grow with the number of records. By default, a thread that adds a record
+	 * while there is no more space waits up to 100 milliseconds before the record
+	 * is discarded.
+	 * 
+	 * @param name         The thread name.
+	 * @param recordWriter The function that writes a record to a sink.
+	 * @param order        The function that returns the time at which a record
+	 *                     has been created, used to merge the per thread buffers.
+	 * @param capacity     The maximum number of pending records.
+	 */
+	LogWriter(String name, IRecordWriter<? super T> recordWriter, ToLongFunction<? super T> order, int capacity) {
+		this.recordWriter = recordWriter;
+		this.order = order;
+
+		queue = new ArrayBlockingQueue<T>(capacity);
+		buffers = new CopyOnWriteArrayList<ProducerBuffer<T>>();
+		localBuffer = new ThreadLocal<ProducerBuffer<T>>();
+		overflow = new QueueOverflow<T>(EQueueOverflow.BLOCK, 100);
+		sinks = new CopyOnWriteArrayList<ILogSink>();
+		flushSize = 8192;
+		flushDelay = 0;
+
+		thread = new Thread(() -> run(), name);
+		thread.setDaemon(true);
+
+		disposable = new Disposable();
+	}
+
+	/**
+	 * Start the underlying thread.
+	 */
+	void start() {
+		thread.start();
+	}
+
+	/**
+	 * Appends the given record to the pending records.
+	 * 
+	 * @param record The record to write.
+	 * 
+	 * @throws IllegalStateException If there is no more space for pending records
+	 *                               and the overflow policy is FAIL.
+	 */
+	void add(T record) {
+		disposable.checkDisposed();
+
+		int capacity = bufferCapacity;
+		if (capacity == 0)
+			overflow.offer(queue, record);
+		else {
+			ProducerBuffer<T> buffer = localBuffer.get();
+			if (buffer == null || buffer.isRetired) {
+				buffer = new ProducerBuffer<T>(Thread.currentThread(), capacity);
+				buffers.add(buffer);
+				localBuffer.set(buffer);
+			}
+
+			if (!buffer.offer(record))
+				overflow.offer(buffer::offer, record);
+
+			// The buffer may have been removed before the record was appended
+			if (buffer.isRetired)
+				buffer.restore(buffers);
+		}
+
+		if (isWaiting)
+			LockSupport.unpark(thread);
+	}
+
+	/**
+	 * Set the capacity of the buffer of each thread that adds records. Each thread
+	 * appends its records to its own buffer without lock, the buffers are merged
+	 * by the underlying thread in the order of creation of the records. The
+	 * current buffers are retired: they are removed once drained and each thread
+	 * creates a new buffer when it adds its next record.
+	 * 
+	 * @param capacity The capacity of the buffers, rounded up to a power of two. 0
+	 *                 in order to add the records to the queue shared by all
+	 *                 threads.
+	 */
+	void setBufferCapacity(int capacity) {
+		bufferCapacity = capacity <= 0 ? 0 : Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+		for (ProducerBuffer<T> buffer : buffers)
+			buffer.isRetired = true;
+	}
+
+	/**
+	 * @return True if each thread adds its records to its own buffer.
+	 */
+	boolean isBuffered() {
+		return bufferCapacity > 0;
+	}
+
+	/**
+	 * @return The behavior of this writer when a record is added while there is no
+	 *         more space for pending records.
+	 */
+	QueueOverflow<T> getOverflow() {
+		return overflow;
+	}
+
+	/**
+	 * @param sink The sink to which the records are written.
+	 */
+	void addSink(ILogSink sink) {
+		sinks.add(sink);
+	}
+
+	/**
+	 * @param sink The sink to which the records are not written any more.
+	 */
+	void removeSink(ILogSink sink) {
+		sinks.remove(sink);
+	}
+
+	/**
+	 * @param sink The sink to check.
+	 * 
+	 * @return True if the records are written to the given sink.
+	 */
+	boolean containsSink(ILogSink sink) {
+		return sinks.contains(sink);
+	}
+
+	/**
+	 * @param flushSize The number of buffered characters from which the sinks are
+	 *                  flushed.
+	 */
+	void setFlushSize(int flushSize) {
+		this.flushSize = flushSize;
+	}
+
+	/**
+	 * @param flushDelay The maximum time, in milliseconds, during which a record
+	 *                   may be buffered. 0 in order to flush the sinks each time
+	 *                   the pending records have been written.
+	 */
+	void setFlushDelay(long flushDelay) {
+		this.flushDelay = flushDelay;
+	}
+
+	/**
+	 * Dispose this writer. The underlying thread writes the pending records and
+	 * flushes the sinks before stopping.
+	 */
+	void dispose() {
+		if (disposable.dispose())
+			thread.interrupt();
+	}
+
+	private void run() {
+		List<T> batch = new ArrayList<T>();
+		long buffered = 0, deadline = 0;
+
+		while (!disposable.isDisposed()) {
+			try {
+				queue.drainTo(batch);
+				drainBuffers(batch);
+
+				if (batch.isEmpty()) {
+					if (buffered > 0 && System.nanoTime() - deadline >= 0) {
+						flush();
+						buffered = 0;
+					} else
+						await(buffered > 0 ? deadline - System.nanoTime() : 0);
+					continue;
+				}
+
+				if (buffered == 0)
+					deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushDelay);
+
+				buffered += write(batch);
+				batch.clear();
+
+				if (buffered >= flushSize || System.nanoTime() - deadline >= 0) {
+					flush();
+					buffered = 0;
+				}
+			} catch (Exception e) {
+				e.printStackTrace();
+				batch.clear();
+			}
+		}
+
+		// Clearing the interruption, otherwise the channels of the sinks are closed
+		Thread.interrupted();
+		queue.drainTo(batch);
+		drainBuffers(batch);
+		write(batch);
+		flush();
+	}
+
+	/**
+	 * Moves the records of the per thread buffers to the given batch. When at
+	 * least one buffer has records, the batch is sorted by creation time. Since
+	 * the records of each buffer are already sorted, the sort merges them. The
+	 * buffers of the terminated threads and the retired buffers are removed once
+	 * empty.
+	 * 
+	 * @param batch The list in which the records are moved.
+	 */
+	private void drainBuffers(List<T> batch) {
+		boolean drained = false;
+		for (ProducerBuffer<T> buffer : buffers) {
+			drained |= buffer.drainTo(batch) > 0;
+			if (!buffer.owner.isAlive() && buffer.isEmpty())
+				buffers.remove(buffer);
+			else if (buffer.isRetired)
+				buffer.remove(buffers);
+		}
+
+		if (drained && batch.size() > 1)
+			batch.sort((r1, r2) -> Long.compare(order.applyAsLong(r1), order.applyAsLong(r2)));
+	}
+
+	/**
+	 * Waits until a record is added, this writer is disposed or the given time has
+	 * elapsed.
+	 * 
+	 * @param nanos The maximum time to wait, in nanoseconds, 0 in order to wait
+	 *              without time limit.
+	 */
+	private void await(long nanos) {
+		isWaiting = true;
+		if (queue.isEmpty() && areBuffersEmpty()) {
+			if (nanos > 0)
+				LockSupport.parkNanos(this, nanos);
+			else
+				LockSupport.park(this);
+		}
+		isWaiting = false;
+	}
+
+	/**
+	 * @return True if there is no record in the per thread buffers.
+	 */
+	private boolean areBuffersEmpty() {
+		for (ProducerBuffer<T> buffer : buffers)
+			if (!buffer.isEmpty())
+				return false;
+		return true;
+	}
+
+	/**
+	 * Writes the given records to each sink.
+	 * 
+	 * @param records The records to write.
+	 * 
+	 * @return The largest number of characters, or bytes, written to a sink.
+	 */
+	private long write(List<T> records) {
+		long length = 0;
+		for (T record : records) {
+			int written = 0;
+			for (ILogSink sink : sinks) {
+				try {
+					written = Math.max(written, recordWriter.write(record, sink));
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
+			length += written;
+		}
+		return length;
+	}
+
+	/**
+	 * Flushes each sink.
+	 */
+	private void flush() {
+		for (ILogSink sink : sinks) {
+			try {
+				sink.flush();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	private static class ProducerBuffer<T> {
+		private Thread owner;
+		private Object[] elements;
+		private int mask;
+		private AtomicLong head, tail;
+		private long cachedHead;
+		private volatile boolean isRetired;
+		private boolean isRemoved;
+
+		/**
+		 * Creates a ring buffer with a single producer, the owner thread, and a single
+		 * consumer, the thread of the writer.
+		 * 
+		 * @param owner    The thread that adds records to this buffer.
+		 * @param capacity The capacity of the buffer, a power of two.
+		 */
+		private ProducerBuffer(Thread owner, int capacity) {
+			this.owner = owner;
+
+			elements = new Object[capacity];
+			mask = capacity - 1;
+			head = new AtomicLong();
+			tail = new AtomicLong();
+		}
+
+		/**
+		 * Appends the given record, called by the owner thread only.
+		 * 
+		 * @param record The record to append.
+		 * 
+		 * @return False if the buffer is full.
+		 */
+		private boolean offer(T record) {
+			long position = tail.get();
+			if (position - cachedHead == elements.length) {
+				cachedHead = head.get();
+				if (position - cachedHead == elements.length)
+					return false;
+			}
+
+			elements[(int) position & mask] = record;
+			tail.set(position + 1);
+			return true;
+		}
+
+		/**
+		 * Moves the records of this buffer to the given list, called by the thread of
+		 * the writer only.
+		 * 
+		 * @param list The list in which the records are moved.
+		 * 
+		 * @return The number of moved records.
+		 */
+		@SuppressWarnings("unchecked")
+		private int drainTo(List<? super T> list) {
+			long start = head.get(), end = tail.get();
+			for (long position = start; position < end; position++) {
+				int index = (int) position & mask;
+				list.add((T) elements[index]);
+				elements[index] = null;
+			}
+			head.set(end);
+			return (int) (end - start);
+		}
+
+		/**
+		 * @return True if this buffer has no record.
+		 */
+		private boolean isEmpty() {
+			return head.get() == tail.get();
+		}
+
+		/**
+		 * Removes this retired buffer from the given buffers if it is empty, called by
+		 * the thread of the writer only.
+		 * 
+		 * @param buffers The buffers drained by the writer.
+		 */
+		private synchronized void remove(List<ProducerBuffer<T>> buffers) {
+			if (isEmpty()) {
+				buffers.remove(this);
+				isRemoved = true;
+			}
+		}
+
+		/**
+		 * Adds this retired buffer back to the given buffers if it has been removed
+		 * while the owner thread was appending a record, called by the owner thread
+		 * only.
+		 * 
+		 * @param buffers The buffers drained by the writer.
+		 */
+		private synchronized void restore(List<ProducerBuffer<T>> buffers) {
+			if (isRemoved && !isEmpty()) {
+				buffers.add(this);
+				isRemoved = false;
+			}
+		}
+	}
+
+	interface IRecordWriter<T> {
+
+		/**
+		 * Writes the given record to the given sink.
+		 * 
+		 * @param record The record to write.
+		 * @param sink   The sink to which the record is written.
+		 * 
+		 * @return The number of written characters, or bytes for binary sinks.
+		 * 
+		 * @throws IOException If an I/O error occurs.
+		 */
+		int write(T record, ILogSink sink) throws IOException;
+	}
+}
@@ -1,25 +1,66 @@
 package fr.pederobien.utils.event;
 
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
 import java.time.LocalTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
-import java.util.HashSet;
+import java.time.temporal.Temporal;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.IllegalFormatException;
+import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
 
-import fr.pederobien.utils.BlockingQueueTask;
+import fr.pederobien.utils.EQueueOverflow;
 
 public class Logger implements IEventListener {
-	private BlockingQueueTask<String> queue;
+	private static final DateTimeFormatter SECOND_FORMATTER = DateTimeFormatter.ofPattern("HH:mm:ss:");
+	static final long NO_TIME = Long.MIN_VALUE;
+	private static volatile TimeStampPrefix lastPrefix;
+
+	private LogWriter<LogRecord> writer;
+	private ILogSink console;
 	private Set<Class<? extends Event>> ignored;
+	private Map<Class<? extends Event>, Integer> samplings, rateLimits;
+	private volatile int sampling, rateLimit;
+	private AtomicInteger filterVersion;
+	private ClassValue<EventFilter> filters;
+	private LongAdder suppressed;
 	private AtomicBoolean isRegistered;
 	private boolean newLine, timeStamp;
+	private volatile ELogLevel minimumLevel;
+	private Map<String, LogSource> sources;
 
 	private Logger() {
-		ignored = new HashSet<Class<? extends Event>>();
+		ignored = ConcurrentHashMap.newKeySet();
+		samplings = new ConcurrentHashMap<Class<? extends Event>, Integer>();
+		rateLimits = new ConcurrentHashMap<Class<? extends Event>, Integer>();
+		filterVersion = new AtomicInteger();
+		suppressed = new LongAdder();
+		filters = new ClassValue<EventFilter>() {
+			@Override
+			protected EventFilter computeValue(Class<?> eventClass) {
+				return createFilter(eventClass);
+			}
+		};
 		isRegistered = new AtomicBoolean(false);
+		minimumLevel = ELogLevel.DEBUG;
+		sources = new ConcurrentHashMap<String, LogSource>();
 
-		queue = new BlockingQueueTask<String>("AsyncConsole", text -> System.out.print(text));
-		queue.start();
+		console = new ChannelLogSink(() -> System.out, 8192);
+		writer = new LogWriter<LogRecord>("AsyncConsole", (record, sink) -> record.writeTo(sink), record -> record.order, 10000);
+		writer.addSink(console);
+		writer.start();
 	}
 
 	/**
@@ -29,7 +70,55 @@ public class Logger implements IEventListener {
 	 * @param args   The arguments of the message to display.
 	 */
 	public static void info(String format, Object... args) {
-		instance().print(new LogEvent(ELogLevel.INFO, format, args));
+		if (instance().isEnabled(ELogLevel.INFO))
+			instance().print(new LogEvent(ELogLevel.INFO, null, format, args));
+	}
+
+	/**
+	 * Creates a LogEvent with log level INFO and the given formatted text.
+	 * Nothing is allocated if the level is disabled.
+	 * 
+	 * @param format The formatter of the message to display.
+	 */
+	public static void info(String format) {
+		if (instance().isEnabled(ELogLevel.INFO))
+			instance().print(new LogEvent(ELogLevel.INFO, null, format));
+	}
+
+	/**
+	 * Creates a LogEvent with log level INFO and the given formatted text.
+	 * Nothing is allocated if the level is disabled.
+	 * 
+	 * @param format The formatter of the message to display.
+	 * @param arg    The argument of the message to display.
+	 */
+	public static void info(String format, Object arg) {
+		if (instance().isEnabled(ELogLevel.INFO))
+			instance().print(new LogEvent(ELogLevel.INFO, null, format, arg));
+	}
+
+	/**
+	 * Creates a LogEvent with log level INFO and the given formatted text.
+	 * Nothing is allocated if the level is disabled.
+	 * 
+	 * @param format The formatter of the message to display.
+	 * @param arg1   The first argument of the message to display.
+	 * @param arg2   The second argument of the message to display.
+	 */
+	public static void info(String format, Object arg1, Object arg2) {
+		if (instance().isEnabled(ELogLevel.INFO))
+			instance().print(new LogEvent(ELogLevel.INFO, null, format, arg1, arg2));
+	}
+
+	/**
+	 * Creates a LogEvent with log level INFO and the text returned by the given
+	 * supplier. The supplier is only called if the level is enabled.
+	 * 
+	 * @param message The supplier of the message to display.
+	 */
+	public static void info(Supplier<String> message) {
+		if (instance().isEnabled(ELogLevel.INFO))
+			instance().print(new LogEvent(ELogLevel.INFO, null, "%s", message.get()));
 	}
 
 	/**
@@ -39,7 +128,55 @@ public class Logger implements IEventListener {
 	 * @param args   The arguments of the message to display.
 	 */
 	public static void debug(String format, Object... args) {
-		instance().print(new LogEvent(ELogLevel.DEBUG, format, args));
+		if (instance().isEnabled(ELogLevel.DEBUG))
+			instance().print(new LogEvent(ELogLevel.DEBUG, null, format, args));
+	}
+
+	/**
+	 * Creates a LogEvent with log level DEBUG and the given formatted text.
+	 * Nothing is allocated if the level is disabled.
+	 * 
+	 * @param format The formatter of the message to display.
+	 */
+	public static void debug(String format) {
+		if (instance().isEnabled(ELogLevel.DEBUG))
+			instance().print(new LogEvent(ELogLevel.DEBUG, null, format));
+	}
+
+	/**
+	 * Creates a LogEvent with log level DEBUG and the given formatted text.
+	 * Nothing is allocated if the level is disabled.
+	 * 
+	 * @param format The formatter of the message to display.
+	 * @param arg    The argument of the message to display.
+	 */
+	public static void debug(String format, Object arg) {
+		if (instance().isEnabled(ELogLevel.DEBUG))
+			instance().print(new LogEvent(ELogLevel.DEBUG, null, format, arg));
+	}
+
+	/**
+	 * Creates a LogEvent with log level DEBUG and the given formatted text.
+	 * Nothing is allocated if the level is disabled.
+	 * 
+	 * @param format The formatter of the message to display.
+	 * @param arg1   The first argument of the message to display.
+	 * @param arg2   The second argument of the message to display.
+	 */
+	public static void debug(String format, Object arg1, Object arg2) {
+		if (instance().isEnabled(ELogLevel.DEBUG))
+			instance().print(new LogEvent(ELogLevel.DEBUG, null, format, arg1, arg2));
+	}
+
+	/**
+	 * Creates a LogEvent with log level DEBUG and the text returned by the given
+	 * supplier. The supplier is only called if the level is enabled.
+	 * 
+	 * @param message The supplier of the message to display.
+	 */
+	public static void debug(Supplier<String> message) {
+		if (instance().isEnabled(ELogLevel.DEBUG))
+			instance().print(new LogEvent(ELogLevel.DEBUG, null, "%s", message.get()));
 	}
 
 	/**
@@ -49,7 +186,55 @@ public class Logger implements IEventListener {
 	 * @param args   The arguments of the message to display.
 	 */
 	public static void warning(String format, Object... args) {
-		instance().print(new LogEvent(ELogLevel.WARNING, format, args));
+		if (instance().isEnabled(ELogLevel.WARNING))
+			instance().print(new LogEvent(ELogLevel.WARNING, null, format, args));
+	}
+
+	/**
+	 * Creates a LogEvent with log level WARNING and the given formatted text.
+	 * Nothing is allocated if the level is disabled.
+	 * 
+	 * @param format The formatter of the message to display.
+	 */
+	public static void warning(String format) {
+		if (instance().isEnabled(ELogLevel.WARNING))
+			instance().print(new LogEvent(ELogLevel.WARNING, null, format));
+	}
+
+	/**
+	 * Creates a LogEvent with log level WARNING and the given formatted text.
+	 * Nothing is allocated if the level is disabled.
+	 * 
+	 * @param format The formatter of the message to display.
+	 * @param arg    The argument of the message to display.
+	 */
+	public static void warning(String format, Object arg) {
+		if (instance().isEnabled(ELogLevel.WARNING))
+			instance().print(new LogEvent(ELogLevel.WARNING, null, format, arg));
+	}
+
+	/**
+	 * Creates a LogEvent with log level WARNING and the given formatted text.
+	 * Nothing is allocated if the level is disabled.
+	 * 
+	 * @param format The formatter of the message to display.
+	 * @param arg1   The first argument of the message to display.
+	 * @param arg2   The second argument of the message to display.
+	 */
+	public static void warning(String format, Object arg1, Object arg2) {
+		if (instance().isEnabled(ELogLevel.WARNING))
+			instance().print(new LogEvent(ELogLevel.WARNING, null, format, arg1, arg2));
+	}
+
+	/**
+	 * Creates a LogEvent with log level WARNING and the text returned by the given
+	 * supplier. The supplier is only called if the level is enabled.
+	 * 
+	 * @param message The supplier of the message to display.
+	 */
+	public static void warning(Supplier<String> message) {
+		if (instance().isEnabled(ELogLevel.WARNING))
+			instance().print(new LogEvent(ELogLevel.WARNING, null, "%s", message.get()));
 	}
 
 	/**
@@ -59,7 +244,55 @@ public class Logger implements IEventListener {
 	 * @param args   The arguments of the message to display.
 	 */
 	public static void error(String format, Object... args) {
-		instance().print(new LogEvent(ELogLevel.ERROR, format, args));
+		if (instance().isEnabled(ELogLevel.ERROR))
+			instance().print(new LogEvent(ELogLevel.ERROR, null, format, args));
+	}
+
+	/**
+	 * Creates a LogEvent with log level ERROR and the given formatted text.
+	 * Nothing is allocated if the level is disabled.
+	 * 
+	 * @param format The formatter of the message to display.
+	 */
+	public static void error(String format) {
+		if (instance().isEnabled(ELogLevel.ERROR))
+			instance().print(new LogEvent(ELogLevel.ERROR, null, format));
+	}
+
+	/**
+	 * Creates a LogEvent with log level ERROR and the given formatted text.
+	 * Nothing is allocated if the level is disabled.
+	 * 
+	 * @param format The formatter of the message to display.
+	 * @param arg    The argument of the message to display.
+	 */
+	public static void error(String format, Object arg) {
+		if (instance().isEnabled(ELogLevel.ERROR))
+			instance().print(new LogEvent(ELogLevel.ERROR, null, format, arg));
+	}
+
+	/**
+	 * Creates a LogEvent with log level ERROR and the given formatted text.
+	 * Nothing is allocated if the level is disabled.
+	 * 
+	 * @param format The formatter of the message to display.
+	 * @param arg1   The first argument of the message to display.
+	 * @param arg2   The second argument of the message to display.
+	 */
+	public static void error(String format, Object arg1, Object arg2) {
+		if (instance().isEnabled(ELogLevel.ERROR))
+			instance().print(new LogEvent(ELogLevel.ERROR, null, format, arg1, arg2));
+	}
+
+	/**
+	 * Creates a LogEvent with log level ERROR and the text returned by the given
+	 * supplier. The supplier is only called if the level is enabled.
+	 * 
+	 * @param message The supplier of the message to display.
+	 */
+	public static void error(Supplier<String> message) {
+		if (instance().isEnabled(ELogLevel.ERROR))
+			instance().print(new LogEvent(ELogLevel.ERROR, null, "%s", message.get()));
 	}
 
 	/**
@@ -69,7 +302,47 @@ public class Logger implements IEventListener {
 	 * @param args   The arguments of the message to display.
 	 */
 	public static void print(String format, Object... args) {
-		instance().print(new LogEvent(ELogLevel.NONE, format, args));
+		instance().print(new LogEvent(ELogLevel.NONE, null, format, args));
+	}
+
+	/**
+	 * @return True if the messages with log level DEBUG are displayed.
+	 */
+	public static boolean isDebugEnabled() {
+		return instance().isEnabled(ELogLevel.DEBUG);
+	}
+
+	/**
+	 * @return True if the messages with log level INFO are displayed.
+	 */
+	public static boolean isInfoEnabled() {
+		return instance().isEnabled(ELogLevel.INFO);
+	}
+
+	/**
+	 * @return True if the messages with log level WARNING are displayed.
+	 */
+	public static boolean isWarningEnabled() {
+		return instance().isEnabled(ELogLevel.WARNING);
+	}
+
+	/**
+	 * @return True if the messages with log level ERROR are displayed.
+	 */
+	public static boolean isErrorEnabled() {
+		return instance().isEnabled(ELogLevel.ERROR);
+	}
+
+	/**
+	 * Get the logger of the given source, whose minimum log level can be set
+	 * independently of the global minimum log level.
+	 * 
+	 * @param name The name of the source, displayed with its messages.
+	 * 
+	 * @return The logger of the source, created if necessary.
+	 */
+	public static LogSource source(String name) {
+		return instance().sources.computeIfAbsent(name, key -> new LogSource(key));
 	}
 
 	/**
@@ -90,9 +363,8 @@ public class Logger implements IEventListener {
 	 * @param clazz The class of event to not display.
 	 */
 	public <T extends Event> Logger ignore(Class<T> clazz) {
-		if (ignored.contains(clazz))
-			return this;
-		ignored.add(clazz);
+		if (ignored.add(clazz))
+			filterVersion.incrementAndGet();
 		return this;
 	}
 
@@ -102,7 +374,83 @@ public class Logger implements IEventListener {
 	 * @param clazz The class to not ignore.
 	 */
 	public <T extends Event> void accept(Class<T> clazz) {
-		ignored.remove(clazz);
+		if (ignored.remove(clazz))
+			filterVersion.incrementAndGet();
+	}
+
+	/**
+	 * Set the number of called events among which one is displayed, for the event
+	 * classes without specific sampling.
+	 * 
+	 * @param sampling The sampling, 1 in order to display every event.
+	 * 
+	 * @return This logger.
+	 */
+	public Logger eventSampling(int sampling) {
+		this.sampling = sampling;
+		filterVersion.incrementAndGet();
+		return this;
+	}
+
+	/**
+	 * Set the number of called events of the given class, or of its sub classes,
+	 * among which one is displayed.
+	 * 
+	 * @param clazz    The class of event.
+	 * @param sampling The sampling, 1 in order to display every event, 0 in order
+	 *                 to use the sampling of the logger.
+	 * 
+	 * @return This logger.
+	 */
+	public <T extends Event> Logger eventSampling(Class<T> clazz, int sampling) {
+		if (sampling <= 0)
+			samplings.remove(clazz);
+		else
+			samplings.put(clazz, sampling);
+		filterVersion.incrementAndGet();
+		return this;
+	}
+
+	/**
+	 * Set the maximum number of called events of each class displayed per second,
+	 * for the event classes without specific limit.
+	 * 
+	 * @param rateLimit The maximum number of events per second, 0 for no limit.
+	 * 
+	 * @return This logger.
+	 */
+	public Logger eventRateLimit(int rateLimit) {
+		this.rateLimit = rateLimit;
+		filterVersion.incrementAndGet();
+		return this;
+	}
+
+	/**
+	 * Set the maximum number of called events of the given class, or of its sub
+	 * classes, displayed per second. The limit applies to each event class
+	 * separately.
+	 * 
+	 * @param clazz     The class of event.
+	 * @param rateLimit The maximum number of events per second, 0 in order to use
+	 *                  the limit of the logger.
+	 * 
+	 * @return This logger.
+	 */
+	public <T extends Event> Logger eventRateLimit(Class<T> clazz, int rateLimit) {
+		if (rateLimit <= 0)
+			rateLimits.remove(clazz);
+		else
+			rateLimits.put(clazz, rateLimit);
+		filterVersion.incrementAndGet();
+		return this;
+	}
+
+	/**
+	 * @return The number of called events that have not been displayed because of
+	 *         the sampling or of the rate limit.
+	 */
+	public long getSuppressedEvents() {
+		return suppressed.sum();
 	}
 
 	/**
@@ -151,6 +499,42 @@ public class Logger implements IEventListener {
 		return this;
 	}
 
+	/**
+	 * Set the minimum log level of the messages to display. Messages with a lower
+	 * log level are discarded before being created. Messages printed with
+	 * {@link #print(String, Object...)} are always displayed.
+	 * 
+	 * @param minimumLevel The minimum log level, NONE in order to display all
+	 *                     messages.
+	 * 
+	 * @return This logger.
+	 * 
+	 * @throws IllegalArgumentException If the minimum log level is null.
+	 */
+	public Logger minimumLevel(ELogLevel minimumLevel) {
+		if (minimumLevel == null)
+			throw new IllegalArgumentException("The minimum log level must not be null");
+
+		this.minimumLevel = minimumLevel;
+		return this;
+	}
+
+	/**
+	 * @return The minimum log level of the messages to display.
+	 */
+	public ELogLevel getMinimumLevel() {
+		return minimumLevel;
+	}
+
+	/**
+	 * @param level The log level of a message.
+	 * 
+	 * @return True if the messages with the given log level are displayed.
+	 */
+	public boolean isEnabled(ELogLevel level) {
+		return level.isEnabled(minimumLevel);
+	}
+
 	/**
 	 * Set if the logs shall be displayed in color depending on their level.
 	 * 
@@ -163,72 +547,390 @@ public class Logger implements IEventListener {
 		return this;
 	}
 
-	@EventHandler(priority = EventPriority.LOWEST)
-	private void onLog(EventCalledEvent event) {
-		if (ignored.contains(event.getClass()) || isSuperClassIgnored(event))
-			return;
-
-		print(event.getEvent());
+	/**
+	 * Set if the logs shall be displayed in the console.
+	 * 
+	 * @param console True to display in the console, false otherwise.
+	 * 
+	 * @return This logger.
+	 */
+	public Logger console(boolean console) {
+		if (!console)
+			writer.removeSink(this.console);
+		else if (!writer.containsSink(this.console))
+			writer.addSink(this.console);
+		return this;
 	}
 
 	/**
-	 * Print the event in the console.
+	 * Add a sink to which the logs are written, in addition to the console.
 	 * 
-	 * @param event The event to print.
+	 * @param sink The sink to add.
+	 * 
+	 * @return This logger.
 	 */
-	private void print(Event event) {
-		String text = event.toString();
-		if (timeStamp) {
-			String time = LocalTime.now().format(DateTimeFormatter.ofPattern("HH:mm:ss:SSSS"));
-			text = String.format("[%s] %s", time, text);
-		}
+	public Logger addSink(ILogSink sink) {
+		writer.addSink(sink);
+		return this;
+	}
 
-		if (newLine)
-			text = String.format("%s\n", text);
+	/**
+	 * Remove a sink to which the logs are written. The sink is not closed.
+	 * 
+	 * @param sink The sink to remove.
+	 * 
+	 * @return This logger.
+	 */
+	public Logger removeSink(ILogSink sink) {
+		writer.removeSink(sink);
+		return this;
+	}
 
-		queue.add(text);
+	/**
+	 * Set the number of buffered characters from which the sinks are flushed. The
+	 * logs written together are sent to each sink with a single write.
+	 * 
+	 * @param flushSize The flush size, in characters.
+	 * 
+	 * @return This logger.
+	 */
+	public Logger flushSize(int flushSize) {
+		writer.setFlushSize(flushSize);
+		return this;
 	}
 
 	/**
-	 * Check if a super class of the called event is forbidden.
+	 * Set the maximum time during which a log may be buffered before the sinks are
+	 * flushed.
 	 * 
-	 * @param event The event that contains the called event.
-	 * @return True if a super class is forbidden, false otherwise.
+	 * @param flushDelay The flush delay, in milliseconds. 0 in order to flush the
+	 *                   sinks as soon as the pending logs have been written.
+	 * 
+	 * @return This logger.
 	 */
-	private boolean isSuperClassIgnored(EventCalledEvent event) {
-		for (Class<?> clazz = event.getEvent().getClass(); Event.class
-				.isAssignableFrom(clazz); clazz = clazz.getSuperclass())
-			if (ignored.contains(clazz))
-				return true;
-		return false;
+	public Logger flushDelay(long flushDelay) {
+		writer.setFlushDelay(flushDelay);
+		return this;
 	}
 
-	public enum ELogLevel {
+	/**
+	 * Set the capacity of the buffer of each thread that writes logs. Instead of
+	 * contending on the queue shared by all threads, each thread appends its logs
+	 * to its own buffer without lock. The logs of the buffers are merged in the
+	 * order in which they have been written. With the DROP_OLDEST and SAMPLE
+	 * overflow policies, a log written while the buffer of its thread is full is
+	 * discarded. Each buffer keeps its capacity in memory as long as its thread is
+	 * alive, so the buffers suit a few threads writing many logs better than many
+	 * short-lived threads.
+	 * 
+	 * @param capacity The capacity of the buffer of each thread, 0 in order to use
+	 *                 the shared queue.
+	 * 
+	 * @return This logger.
+	 */
+	public Logger threadBuffers(int capacity) {
+		writer.setBufferCapacity(capacity);
+		return this;
+	}
 
-		// No color
-		NONE("\u001B[0m"),
+	/**
+	 * Set the behavior of the logger when a log is written while the maximum number
+	 * of pending logs has been reached. By default, the thread that writes the log
+	 * waits up to 100 milliseconds before the log is discarded.
+	 * 
+	 * @param overflow The overflow policy.
+	 * 
+	 * @return This logger.
+	 */
+	public Logger overflow(EQueueOverflow overflow) {
+		writer.getOverflow().policy(overflow);
+		return this;
+	}
 
-		// Magenta
-		INFO("\u001B[95m"),
+	/**
+	 * Set the maximum time during which a thread waits for space to write a log
+	 * with the BLOCK overflow policy.
+	 * 
+	 * @param timeout The timeout, in milliseconds.
+	 * 
+	 * @return This logger.
+	 */
+	public Logger overflowTimeout(long timeout) {
+		writer.getOverflow().timeout(timeout);
+		return this;
+	}
 
-		// Cyan
-		DEBUG("\u001B[96m"),
+	/**
+	 * Set the number of overflowing logs among which one is kept with the SAMPLE
+	 * overflow policy.
+	 * 
+	 * @param sampleRate The sample rate.
+	 * 
+	 * @return This logger.
+	 */
+	public Logger overflowSampleRate(int sampleRate) {
+		writer.getOverflow().sampleRate(sampleRate);
+		return this;
+	}
 
-		// Yellow
-		WARNING("\u001B[33m"),
+	/**
+	 * Set the sink to which the overflowing logs are written with the SPILL
+	 * overflow policy. The logs are written and flushed by the thread that writes
+	 * the log.
+	 * 
+	 * @param sink The secondary sink, or null in order to discard the overflowing
+	 *             logs.
+	 * 
+	 * @return This logger.
+	 */
+	public Logger overflowSink(ILogSink sink) {
+		writer.getOverflow().spill(sink == null ? null : record -> spill(sink, record));
+		return this;
+	}
 
-		// Red
-		ERROR("\u001B[31m");
+	/**
+	 * @return The number of logs that have been discarded because the maximum
+	 *         number of pending logs has been reached.
+	 */
+	public long getDropped() {
+		return writer.getOverflow().getDropped();
+	}
 
-		private String color;
+	/**
+	 * @return The number of times a thread has waited for space to write a log.
+	 */
+	public long getBlocked() {
+		return writer.getOverflow().getBlocked();
+	}
 
-		/**
+	/**
+	 * @return The number of logs that have been written to the overflow sink.
+	 */
+	public long getSpilled() {
+		return writer.getOverflow().getSpilled();
+	}
+
+	@EventHandler(priority = EventPriority.LOWEST)
+	private void onLog(EventCalledEvent event) {
+		Class<? extends Event> eventClass = event.getEvent().getClass();
+		EventFilter filter = filters.get(eventClass);
+
+		// The settings have changed since the filter has been created
+		if (filter.version != filterVersion.get()) {
+			filters.remove(eventClass);
+			filter = filters.get(eventClass);
+		}
+
+		if (filter.isIgnored)
+			return;
+
+		long skipped = filter.accept();
+		if (skipped < 0) {
+			suppressed.increment();
+			return;
+		}
+
+		if (skipped > 0)
+			print(new LogEvent(ELogLevel.NONE, null, "[%s %s events suppressed]", skipped, eventClass.getSimpleName()));
+		print(event.getEvent());
+	}
+
+	/**
+	 * Print the event in the console. The messages of the logger are formatted by
+	 * the console thread, the other events are converted to string immediately
+	 * since they may be modified once dispatched.
+	 * 
+	 * @param event The event to print.
+	 */
+	private void print(Event event) {
+		Object message = event instanceof LogEvent ? event : event.toString();
+		long order = writer.isBuffered() ? System.nanoTime() : 0;
+		writer.add(new LogRecord(message, timeStamp ? currentTimeMicros() : NO_TIME, newLine, order));
+	}
+
+	/**
+	 * @return The current time, in microseconds since the epoch.
+	 */
+	private static long currentTimeMicros() {
+		Instant now = Instant.now();
+		return now.getEpochSecond() * 1000000L + now.getNano() / 1000;
+	}
+
+	/**
+	 * Renders the message of a log.
+	 * 
+	 * @param level     The level of the log.
+	 * @param source    The name of the source of the log, or null.
+	 * @param format    The formatter if the message to display has arguments.
+	 * @param args      The arguments of the message to display.
+	 * @param colorized True in order to display the message in the color of its
+	 *                  level.
+	 * 
+	 * @return The text of the log.
+	 */
+	static String render(ELogLevel level, String source, String format, Object[] args, boolean colorized) {
+		String raw = renderBody(source, format, args);
+		if (level == ELogLevel.NONE)
+			return raw;
+
+		String text = String.format("[%s] %s", level.name(), raw);
+		return colorized ? level.getInColor(text) : text;
+	}
+
+	/**
+	 * Renders the message of a log without its level.
+	 * 
+	 * @param source The name of the source of the log, or null.
+	 * @param format The formatter if the message to display has arguments.
+	 * @param args   The arguments of the message to display.
+	 * 
+	 * @return The text of the log, preceded by its source.
+	 */
+	static String renderBody(String source, String format, Object[] args) {
+		String raw;
+		try {
+			raw = String.format(format, args);
+		} catch (IllegalFormatException e) {
+			raw = String.format("%s %s (%s)", format, Arrays.toString(args), e.getMessage());
+		}
+
+		return source == null ? raw : String.format("[%s] %s", source, raw);
+	}
+
+	/**
+	 * Adds the time stamp and the new line of a log to its text.
+	 * 
+	 * @param text    The text of the log.
+	 * @param time    The time, in microseconds since the epoch, at which the log
+	 *                has been written, NO_TIME if the time stamp should not be
+	 *                displayed.
+	 * @param newLine True in order to display a new line after the log.
+	 * 
+	 * @return The text to display.
+	 */
+	static String decorate(String text, long time, boolean newLine) {
+		if (time == NO_TIME && !newLine)
+			return text;
+
+		StringBuilder builder = new StringBuilder(text.length() + 18);
+		if (time != NO_TIME) {
+			builder.append('[');
+			appendTime(builder, time);
+			builder.append("] ");
+		}
+
+		builder.append(text);
+		if (newLine)
+			builder.append('\n');
+		return builder.toString();
+	}
+
+	/**
+	 * Appends a time stamp. The hours, minutes and seconds are rendered once per
+	 * second, only the fraction of second is rendered for each log.
+	 * 
+	 * @param builder The builder to which the time stamp is appended.
+	 * @param time    The time, in microseconds since the epoch.
+	 */
+	static void appendTime(StringBuilder builder, long time) {
+		long second = Math.floorDiv(time, 1000000L);
+		TimeStampPrefix prefix = lastPrefix;
+		if (prefix == null || prefix.second != second)
+			lastPrefix = prefix = new TimeStampPrefix(second);
+
+		// Tenths of milliseconds, on four digits
+		int fraction = (int) (Math.floorMod(time, 1000000L) / 100);
+		builder.append(prefix.text);
+		for (int bound = 1000; bound > 1 && fraction < bound; bound /= 10)
+			builder.append('0');
+		builder.append(fraction);
+	}
+
+	/**
+	 * Writes the given record to the overflow sink. The record is written by the
+	 * thread that logs it, its interruption is cleared meanwhile, otherwise a sink
+	 * writing to an interruptible channel would close the channel.
+	 * 
+	 * @param sink   The overflow sink.
+	 * @param record The record to write.
+	 */
+	private void spill(ILogSink sink, LogRecord record) {
+		boolean interrupted = Thread.interrupted();
+		try {
+			record.writeTo(sink);
+			sink.flush();
+		} catch (IOException e) {
+			e.printStackTrace();
+		} finally {
+			if (interrupted)
+				Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Creates the filter of the given event class from the current settings. The
+	 * settings of the closest super class apply.
+	 * 
+	 * @param eventClass The class of the called events.
+	 * 
+	 * @return The filter of the event class.
+	 */
+	private EventFilter createFilter(Class<?> eventClass) {
+		int version = filterVersion.get();
+		boolean isIgnored = false;
+		Integer classSampling = null, classRateLimit = null;
+
+		for (Class<?> clazz = eventClass; Event.class.isAssignableFrom(clazz); clazz = clazz.getSuperclass()) {
+			isIgnored |= ignored.contains(clazz);
+			if (classSampling == null)
+				classSampling = samplings.get(clazz);
+			if (classRateLimit == null)
+				classRateLimit = rateLimits.get(clazz);
+		}
+
+		int filterSampling = classSampling == null ? sampling : classSampling;
+		int filterRateLimit = classRateLimit == null ? rateLimit : classRateLimit;
+		return new EventFilter(version, isIgnored, filterSampling, filterRateLimit);
+	}
+
+	public enum ELogLevel {
+
+		// No color
+		NONE("\u001B[0m", 0),
+
+		// Magenta
+		INFO("\u001B[95m", 2),
+
+		// Cyan
+		DEBUG("\u001B[96m", 1),
+
+		// Yellow
+		WARNING("\u001B[33m", 3),
+
+		// Red
+		ERROR("\u001B[31m", 4);
+
+		private String color;
+		private int severity;
+
+		/**
 		 * Creates a log level associated to a color.
 		 * 
-		 * @param color The color used to display the log message.
+		 * @param color    The color used to display the log message.
+		 * @param severity The severity used to compare the log levels.
 		 */
-		private ELogLevel(String color) {
+		private ELogLevel(String color, int severity) {
 			this.color = color;
+			this.severity = severity;
+		}
+
+		/**
+		 * @param minimumLevel The minimum log level of the messages to display.
+		 * 
+		 * @return True if the messages with this log level are displayed.
+		 */
+		public boolean isEnabled(ELogLevel minimumLevel) {
+			return this == NONE || severity >= minimumLevel.severity;
 		}
 
 		/**
@@ -245,29 +947,522 @@ public class Logger implements IEventListener {
 
 	private static class LogEvent extends Event {
 		private static boolean colorized;
+		private ELogLevel level;
+		private String source;
+		private String format;
+		private Object[] args;
+		private boolean isColorized;
 		private String message;
 
 		/**
-		 * Creates a log event.
+		 * Creates a log event. The message is formatted when displayed, the dates
+		 * are copied and, if another argument may be modified meanwhile, the message
+		 * is formatted immediately.
 		 * 
 		 * @param level  The level of the log.
+		 * @param source The name of the source of the log, or null.
 		 * @param format The formatter if the message to display has arguments.
 		 * @param args   The arguments of the message to display.
 		 */
-		private LogEvent(ELogLevel level, String format, Object... args) {
-			String raw = String.format(format, args);
-			if (level == ELogLevel.NONE) {
-				message = raw;
-			} else {
-				message = String.format("[%s] %s", level.name(), raw);
-				if (colorized)
-					message = level.getInColor(message);
+		private LogEvent(ELogLevel level, String source, String format, Object... args) {
+			this.level = level;
+			this.source = source;
+			this.format = format;
+			this.args = snapshot(args);
+			isColorized = colorized;
+
+			if (this.args == null && args != null) {
+				this.format = "%s";
+				this.args = new Object[] { renderBody(null, format, args) };
 			}
 		}
 
 		@Override
 		public String toString() {
+			if (message == null)
+				message = format();
 			return message;
 		}
+
+		private String format() {
+			return render(level, source, format, args, isColorized);
+		}
+
+		/**
+		 * Creates a copy of the given arguments that can be formatted later.
+		 * 
+		 * @param args The arguments of the message.
+		 * 
+		 * @return The arguments, the dates being copied, or null if an argument cannot
+		 *         be copied.
+		 */
+		private static Object[] snapshot(Object[] args) {
+			if (args == null)
+				return null;
+
+			Object[] copy = null;
+			for (int i = 0; i < args.length; i++) {
+				Object arg = args[i];
+				if (isImmutable(arg))
+					continue;
+
+				if (copy == null)
+					copy = args.clone();
+
+				if (arg instanceof Date)
+					copy[i] = new Date(((Date) arg).getTime());
+				else if (arg instanceof Calendar)
+					copy[i] = ((Calendar) arg).clone();
+				else
+					return null;
+			}
+			return copy == null ? args : copy;
+		}
+
+		private static boolean isImmutable(Object arg) {
+			return arg == null || arg instanceof String || arg instanceof Integer || arg instanceof Long || arg instanceof Double
+					|| arg instanceof Float || arg instanceof Short || arg instanceof Byte || arg instanceof Character || arg instanceof Boolean
+					|| arg instanceof BigInteger || arg instanceof BigDecimal || arg instanceof Enum || arg instanceof UUID
+					|| arg instanceof Temporal;
+		}
+	}
+
+	public static class LogSource {
+		private String name;
+		private volatile ELogLevel minimumLevel;
+
+		/**
+		 * Creates the logger of a source.
+		 * 
+		 * @param name The name of the source.
+		 */
+		private LogSource(String name) {
+			this.name = name;
+		}
+
+		/**
+		 * Creates a LogEvent with log level INFO and the given formatted text.
+		 * 
+		 * @param format The formatter if the message to display has arguments.
+		 * @param args   The arguments of the message to display.
+		 */
+		public void info(String format, Object... args) {
+			log(ELogLevel.INFO, format, args);
+		}
+
+		/**
+		 * Creates a LogEvent with log level INFO and the given formatted text.
+		 * Nothing is allocated if the level is disabled.
+		 * 
+		 * @param format The formatter of the message to display.
+		 */
+		public void info(String format) {
+			if (isEnabled(ELogLevel.INFO))
+				instance().print(new LogEvent(ELogLevel.INFO, name, format));
+		}
+
+		/**
+		 * Creates a LogEvent with log level INFO and the given formatted text.
+		 * Nothing is allocated if the level is disabled.
+		 * 
+		 * @param format The formatter of the message to display.
+		 * @param arg    The argument of the message to display.
+		 */
+		public void info(String format, Object arg) {
+			if (isEnabled(ELogLevel.INFO))
+				instance().print(new LogEvent(ELogLevel.INFO, name, format, arg));
+		}
+
+		/**
+		 * Creates a LogEvent with log level INFO and the given formatted text.
+		 * Nothing is allocated if the level is disabled.
+		 * 
+		 * @param format The formatter of the message to display.
+		 * @param arg1   The first argument of the message to display.
+		 * @param arg2   The second argument of the message to display.
+		 */
+		public void info(String format, Object arg1, Object arg2) {
+			if (isEnabled(ELogLevel.INFO))
+				instance().print(new LogEvent(ELogLevel.INFO, name, format, arg1, arg2));
+		}
+
+		/**
+		 * Creates a LogEvent with log level INFO and the text returned by the given
+		 * supplier. The supplier is only called if the level is enabled.
+		 * 
+		 * @param message The supplier of the message to display.
+		 */
+		public void info(Supplier<String> message) {
+			log(ELogLevel.INFO, message);
+		}
+
+		/**
+		 * Creates a LogEvent with log level DEBUG and the given formatted text.
+		 * 
+		 * @param format The formatter if the message to display has arguments.
+		 * @param args   The arguments of the message to display.
+		 */
+		public void debug(String format, Object... args) {
+			log(ELogLevel.DEBUG, format, args);
+		}
+
+		/**
+		 * Creates a LogEvent with log level DEBUG and the given formatted text.
+		 * Nothing is allocated if the level is disabled.
+		 * 
+		 * @param format The formatter of the message to display.
+		 */
+		public void debug(String format) {
+			if (isEnabled(ELogLevel.DEBUG))
+				instance().print(new LogEvent(ELogLevel.DEBUG, name, format));
+		}
+
+		/**
+		 * Creates a LogEvent with log level DEBUG and the given formatted text.
+		 * Nothing is allocated if the level is disabled.
+		 * 
+		 * @param format The formatter of the message to display.
+		 * @param arg    The argument of the message to display.
+		 */
+		public void debug(String format, Object arg) {
+			if (isEnabled(ELogLevel.DEBUG))
+				instance().print(new LogEvent(ELogLevel.DEBUG, name, format, arg));
+		}
+
+		/**
+		 * Creates a LogEvent with log level DEBUG and the given formatted text.
+		 * Nothing is allocated if the level is disabled.
+		 * 
+		 * @param format The formatter of the message to display.
+		 * @param arg1   The first argument of the message to display.
+		 * @param arg2   The second argument of the message to display.
+		 */
+		public void debug(String format, Object arg1, Object arg2) {
+			if (isEnabled(ELogLevel.DEBUG))
+				instance().print(new LogEvent(ELogLevel.DEBUG, name, format, arg1, arg2));
+		}
+
+		/**
+		 * Creates a LogEvent with log level DEBUG and the text returned by the given
+		 * supplier. The supplier is only called if the level is enabled.
+		 * 
+		 * @param message The supplier of the message to display.
+		 */
+		public void debug(Supplier<String> message) {
+			log(ELogLevel.DEBUG, message);
+		}
+
+		/**
+		 * Creates a LogEvent with log level WARNING and the given formatted text.
+		 * 
+		 * @param format The formatter if the message to display has arguments.
+		 * @param args   The arguments of the message to display.
+		 */
+		public void warning(String format, Object... args) {
+			log(ELogLevel.WARNING, format, args);
+		}
+
+		/**
+		 * Creates a LogEvent with log level WARNING and the given formatted text.
+		 * Nothing is allocated if the level is disabled.
+		 * 
+		 * @param format The formatter of the message to display.
+		 */
+		public void warning(String format) {
+			if (isEnabled(ELogLevel.WARNING))
+				instance().print(new LogEvent(ELogLevel.WARNING, name, format));
+		}
+
+		/**
+		 * Creates a LogEvent with log level WARNING and the given formatted text.
+		 * Nothing is allocated if the level is disabled.
+		 * 
+		 * @param format The formatter of the message to display.
+		 * @param arg    The argument of the message to display.
+		 */
+		public void warning(String format, Object arg) {
+			if (isEnabled(ELogLevel.WARNING))
+				instance().print(new LogEvent(ELogLevel.WARNING, name, format, arg));
+		}
+
+		/**
+		 * Creates a LogEvent with log level WARNING and the given formatted text.
+		 * Nothing is allocated if the level is disabled.
+		 * 
+		 * @param format The formatter of the message to display.
+		 * @param arg1   The first argument of the message to display.
+		 * @param arg2   The second argument of the message to display.
+		 */
+		public void warning(String format, Object arg1, Object arg2) {
+			if (isEnabled(ELogLevel.WARNING))
+				instance().print(new LogEvent(ELogLevel.WARNING, name, format, arg1, arg2));
+		}
+
+		/**
+		 * Creates a LogEvent with log level WARNING and the text returned by the given
+		 * supplier. The supplier is only called if the level is enabled.
+		 * 
+		 * @param message The supplier of the message to display.
+		 */
+		public void warning(Supplier<String> message) {
+			log(ELogLevel.WARNING, message);
+		}
+
+		/**
+		 * Creates a LogEvent with log level ERROR and the given formatted text.
+		 * 
+		 * @param format The formatter if the message to display has arguments.
+		 * @param args   The arguments of the message to display.
+		 */
+		public void error(String format, Object... args) {
+			log(ELogLevel.ERROR, format, args);
+		}
+
+		/**
+		 * Creates a LogEvent with log level ERROR and the given formatted text.
+		 * Nothing is allocated if the level is disabled.
+		 * 
+		 * @param format The formatter of the message to display.
+		 */
+		public void error(String format) {
+			if (isEnabled(ELogLevel.ERROR))
+				instance().print(new LogEvent(ELogLevel.ERROR, name, format));
+		}
+
+		/**
+		 * Creates a LogEvent with log level ERROR and the given formatted text.
+		 * Nothing is allocated if the level is disabled.
+		 * 
+		 * @param format The formatter of the message to display.
+		 * @param arg    The argument of the message to display.
+		 */
+		public void error(String format, Object arg) {
+			if (isEnabled(ELogLevel.ERROR))
+				instance().print(new LogEvent(ELogLevel.ERROR, name, format, arg));
+		}
+
+		/**
+		 * Creates a LogEvent with log level ERROR and the given formatted text.
+		 * Nothing is allocated if the level is disabled.
+		 * 
+		 * @param format The formatter of the message to display.
+		 * @param arg1   The first argument of the message to display.
+		 * @param arg2   The second argument of the message to display.
+		 */
+		public void error(String format, Object arg1, Object arg2) {
+			if (isEnabled(ELogLevel.ERROR))
+				instance().print(new LogEvent(ELogLevel.ERROR, name, format, arg1, arg2));
+		}
+
+		/**
+		 * Creates a LogEvent with log level ERROR and the text returned by the given
+		 * supplier. The supplier is only called if the level is enabled.
+		 * 
+		 * @param message The supplier of the message to display.
+		 */
+		public void error(Supplier<String> message) {
+			log(ELogLevel.ERROR, message);
+		}
+
+		/**
+		 * Set the minimum log level of the messages of this source.
+		 * 
+		 * @param minimumLevel The minimum log level, null in order to use the minimum
+		 *                     log level of the logger.
+		 * 
+		 * @return This source.
+		 */
+		public LogSource minimumLevel(ELogLevel minimumLevel) {
+			this.minimumLevel = minimumLevel;
+			return this;
+		}
+
+		/**
+		 * @return The minimum log level of the messages of this source, null if the
+		 *         minimum log level of the logger is used.
+		 */
+		public ELogLevel getMinimumLevel() {
+			return minimumLevel;
+		}
+
+		/**
+		 * @param level The log level of a message.
+		 * 
+		 * @return True if the messages of this source with the given log level are
+		 *         displayed.
+		 */
+		public boolean isEnabled(ELogLevel level) {
+			ELogLevel minimum = minimumLevel;
+			return minimum == null ? instance().isEnabled(level) : level.isEnabled(minimum);
+		}
+
+		/**
+		 * @return True if the messages of this source with log level DEBUG are
+		 *         displayed.
+		 */
+		public boolean isDebugEnabled() {
+			return isEnabled(ELogLevel.DEBUG);
+		}
+
+		/**
+		 * @return The name of this source.
+		 */
+		public String getName() {
+			return name;
+		}
+
+		private void log(ELogLevel level, String format, Object... args) {
+			if (isEnabled(level))
+				instance().print(new LogEvent(level, name, format, args));
+		}
+
+		private void log(ELogLevel level, Supplier<String> message) {
+			if (isEnabled(level))
+				instance().print(new LogEvent(level, name, "%s", message.get()));
+		}
+	}
+
+	private static class EventFilter {
+		private static final long WINDOW = 1000000000L;
+
+		private int version;
+		private boolean isIgnored;
+		private int sampling, rateLimit;
+		private long count, windowStart, skipped;
+		private int inWindow;
+
+		/**
+		 * Creates the decision of displaying or not the called events of a class.
+		 * 
+		 * @param version   The version of the settings of the logger.
+		 * @param isIgnored True if the events are never displayed.
+		 * @param sampling  The number of events among which one is displayed.
+		 * @param rateLimit The maximum number of events displayed per second, 0 for
+		 *                  no limit.
+		 */
+		private EventFilter(int version, boolean isIgnored, int sampling, int rateLimit) {
+			this.version = version;
+			this.isIgnored = isIgnored;
+			this.sampling = sampling;
+			this.rateLimit = rateLimit;
+			windowStart = System.nanoTime();
+		}
+
+		/**
+		 * Decides if a called event of a class that is not ignored is displayed.
+		 * 
+		 * @return -1 if the event is not displayed, otherwise the number of events
+		 *         not displayed since the previous displayed event because of the
+		 *         sampling or of the rate limit.
+		 */
+		private long accept() {
+			if (sampling <= 1 && rateLimit <= 0)
+				return 0;
+
+			synchronized (this) {
+				if (sampling > 1 && count++ % sampling != 0) {
+					skipped++;
+					return -1;
+				}
+
+				if (rateLimit > 0) {
+					long now = System.nanoTime();
+					if (now - windowStart >= WINDOW) {
+						windowStart = now;
+						inWindow = 0;
+					}
+
+					if (++inWindow > rateLimit) {
+						skipped++;
+						return -1;
+					}
+				}
+
+				long result = skipped;
+				skipped = 0;
+				return result;
+			}
+		}
+	}
+
+	private static class LogRecord {
+		private Object message;
+		private long time;
+		private boolean newLine;
+		private long order;
+		private String text;
+
+		/**
+		 * Creates a record waiting to be displayed by the console thread.
+		 * 
+		 * @param message The message to display, formatted when displayed.
+		 * @param time    The time, in microseconds since the epoch, at which the
+		 *                message has been logged, NO_TIME if the time stamp should
+		 *                not be displayed.
+		 * @param newLine True in order to display a new line after the message.
+		 * @param order   The time, in nanoseconds, used to merge the records of the
+		 *                per thread buffers.
+		 */
+		private LogRecord(Object message, long time, boolean newLine, long order) {
+			this.message = message;
+			this.time = time;
+			this.newLine = newLine;
+			this.order = order;
+		}
+
+		/**
+		 * Writes this record to the given sink, as text or encoded if the sink is a
+		 * {@link BinaryLogSink}. The text is formatted once for all the sinks, except
+		 * for a {@link DirectConsoleLogSink} that adds the level itself.
+		 * 
+		 * @param sink The sink to which this record is written.
+		 * 
+		 * @return The number of written characters, or bytes.
+		 * 
+		 * @throws IOException If an I/O error occurs.
+		 */
+		private int writeTo(ILogSink sink) throws IOException {
+			if (sink instanceof BinaryLogSink) {
+				BinaryLogSink binary = (BinaryLogSink) sink;
+				if (!(message instanceof LogEvent))
+					return binary.write(time, message.toString());
+
+				LogEvent event = (LogEvent) message;
+				return binary.write(time, event.level, event.source, event.format, event.args);
+			}
+
+			if (sink instanceof DirectConsoleLogSink && message instanceof LogEvent) {
+				LogEvent event = (LogEvent) message;
+				String body = renderBody(event.source, event.format, event.args);
+				return ((DirectConsoleLogSink) sink).write(time, event.level, event.isColorized, body, newLine);
+			}
+
+			if (text == null)
+				text = format();
+			sink.write(text);
+			return text.length();
+		}
+
+		/**
+		 * @return The text to display in the console.
+		 */
+		private String format() {
+			return decorate(message.toString(), time, newLine);
+		}
+	}
+
+	private static class TimeStampPrefix {
+		private long second;
+		private String text;
+
+		/**
+		 * Renders the hours, minutes and seconds of a time stamp.
+		 * 
+		 * @param second The number of seconds since the epoch.
+		 */
+		private TimeStampPrefix(long second) {
+			this.second = second;
+			text = LocalTime.ofInstant(Instant.ofEpochSecond(second), ZoneId.systemDefault()).format(SECOND_FORMATTER);
+		}
 	}
 }
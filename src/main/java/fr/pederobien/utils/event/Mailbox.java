@@ -0,0 +1,32 @@
+package fr.pederobien.utils.event;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * An annotation to mark an event listener as being notified asynchronously.
+ * Events dispatched to the event handlers of the listener are buffered in a
+ * bounded queue, consumed by a thread dedicated to the listener, in the order
+ * they have been published.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Mailbox {
+
+	/**
+	 * Define the maximum number of pending events for the listener.
+	 * 
+	 * @return The capacity of the mailbox.
+	 */
+	int capacity() default 1000;
+
+	/**
+	 * Define the behavior of the mailbox when an event is posted while the mailbox
+	 * is full.
+	 * 
+	 * @return The overflow policy of the mailbox.
+	 */
+	EMailboxOverflow overflow() default EMailboxOverflow.BLOCK;
+}
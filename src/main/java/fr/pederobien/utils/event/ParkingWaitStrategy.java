@@ -0,0 +1,44 @@
+package fr.pederobien.utils.event;
+
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+public class ParkingWaitStrategy implements IWaitStrategy {
+	private long parkTime;
+
+	/**
+	 * Creates a wait strategy that parks the waiting thread for the given duration
+	 * between each check of the condition. The latency depends on the duration but
+	 * the CPU usage is low.
+	 * 
+	 * @param parkTime The duration, in nanoseconds, between two checks.
+	 */
+	public ParkingWaitStrategy(long parkTime) {
+		if (parkTime <= 0)
+			throw new IllegalArgumentException("The park time must be positive");
+
+		this.parkTime = parkTime;
+	}
+
+	/**
+	 * Creates a wait strategy that parks the waiting thread for 1 microsecond
+	 * between each check of the condition.
+	 */
+	public ParkingWaitStrategy() {
+		this(1000);
+	}
+
+	@Override
+	public void waitFor(BooleanSupplier condition) throws InterruptedException {
+		while (!condition.getAsBoolean()) {
+			if (Thread.interrupted())
+				throw new InterruptedException();
+			LockSupport.parkNanos(parkTime);
+		}
+	}
+
+	@Override
+	public void signalAll() {
+		// Waiting threads wake up by themselves, nothing to do
+	}
+}
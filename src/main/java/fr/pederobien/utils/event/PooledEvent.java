@@ -0,0 +1,116 @@
+package fr.pederobien.utils.event;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public abstract class PooledEvent extends Event {
+	private EventRecycler<?> recycler;
+	private AtomicInteger references;
+	private volatile boolean released;
+
+	/**
+	 * Creates an event that can be reused for several publications. When acquired
+	 * from an {@link EventRecycler}, the event goes back to its pool once the last
+	 * synchronous handler has returned and once it has been consumed by the
+	 * mailboxes it has been posted to. An event created without recycler behaves
+	 * like a regular event.
+	 * <p>
+	 * Handlers must not keep a reference to a pooled event, the event should be
+	 * copied if its data are needed later. Since the caller of
+	 * {@link IEventBus#callEvent(Event)} does not own the event anymore once the
+	 * method returns, the event must be retained in order to be read afterwards,
+	 * for instance to check if it has been cancelled.
+	 */
+	protected PooledEvent() {
+		references = new AtomicInteger();
+	}
+
+	/**
+	 * Clear the state of this event before it goes back to its pool, so that it
+	 * does not keep references to objects that could be garbage collected.
+	 */
+	protected abstract void reset();
+
+	/**
+	 * Increment the number of owners of this event, it does not go back to its
+	 * pool until {@link #release()} has been called as many times.
+	 */
+	public void retain() {
+		checkReleased();
+		references.incrementAndGet();
+	}
+
+	/**
+	 * Decrement the number of owners of this event, the event is reset and goes
+	 * back to its pool when it has no more owners.
+	 * 
+	 * @throws IllegalStateException If the event has already been released by all
+	 *                               its owners.
+	 */
+	public void release() {
+		if (recycler == null)
+			return;
+
+		int count = references.decrementAndGet();
+		if (count > 0)
+			return;
+
+		if (count < 0) {
+			references.incrementAndGet();
+			throw new IllegalStateException(String.format("%s has been released more times than retained", getName()));
+		}
+
+		reset();
+		released = true;
+		recycler.recycle(this);
+	}
+
+	/**
+	 * Checks if this event is still owned, this should be called by the accessors
+	 * of pooled events in order to detect handlers retaining them. The check is
+	 * only effective when the debug mode of the recycler is enabled, since
+	 * released events are then never reused.
+	 * 
+	 * @throws IllegalStateException If this event has been released.
+	 */
+	protected void checkReleased() {
+		if (released)
+			throw new IllegalStateException(String.format("%s is used after having been released", getName()));
+	}
+
+	/**
+	 * Prepare this event to be published by the given recycler.
+	 * 
+	 * @param recycler The recycler this event belongs to.
+	 */
+	void acquire(EventRecycler<?> recycler) {
+		this.recycler = recycler;
+		released = false;
+		references.set(1);
+	}
+
+	/**
+	 * Retain the given event if it is a pooled event, or the event it has been
+	 * created for if it is an {@link EventCalledEvent}.
+	 * 
+	 * @param event The event to retain.
+	 */
+	static void retainIfPooled(Event event) {
+		if (event instanceof PooledEvent)
+			((PooledEvent) event).retain();
+		else if (event instanceof EventCalledEvent)
+			retainIfPooled(((EventCalledEvent) event).getEvent());
+	}
+
+	/**
+	 * Release the given event if it is a pooled event, or the event it has been
+	 * created for if it is an {@link EventCalledEvent}.
+	 * 
+	 * @param event The event to release.
+	 */
+	static void releaseIfPooled(Event event) {
+		if (event instanceof PooledEvent)
+			((PooledEvent) event).release();
+		else if (event instanceof EventCalledEvent)
+			releaseIfPooled(((EventCalledEvent) event).getEvent());
+	}
+}
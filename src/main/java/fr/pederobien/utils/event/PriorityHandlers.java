@@ -0,0 +1,135 @@
+package fr.pederobien.utils.event;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+class PriorityHandlers {
+	private static final EventPriority[] PRIORITIES = EventPriority.values();
+
+	private Map<EventPriority, Queue<Handler>> handlers;
+	private int[] listeningCancelled;
+	private volatile int cancelledLimit;
+
+	/**
+	 * Creates a table that associates each priority with the handlers, in
+	 * registration order, to which an event should be dispatched. The table keeps
+	 * track of the last priority having a handler that does not ignore cancelled
+	 * events, so that the dispatch of a cancelled event can stop as soon as the
+	 * remaining handlers would ignore it.
+	 */
+	PriorityHandlers() {
+		handlers = new EnumMap<EventPriority, Queue<Handler>>(EventPriority.class);
+		for (EventPriority priority : PRIORITIES)
+			handlers.put(priority, new ConcurrentLinkedQueue<Handler>());
+
+		listeningCancelled = new int[PRIORITIES.length];
+		cancelledLimit = -1;
+	}
+
+	/**
+	 * Get the handlers of the given priority.
+	 * 
+	 * @param priority The priority of the handlers.
+	 * 
+	 * @return The handlers in registration order.
+	 */
+	Queue<Handler> get(EventPriority priority) {
+		return handlers.get(priority);
+	}
+
+	/**
+	 * Appends the given handler to the handlers of its priority.
+	 * 
+	 * @param handler The handler to add.
+	 */
+	synchronized void add(Handler handler) {
+		handlers.get(handler.getPriority()).add(handler);
+		if (!handler.isIgnoreCancelled()) {
+			listeningCancelled[handler.getPriority().ordinal()]++;
+			updateCancelledLimit();
+		}
+	}
+
+	/**
+	 * Appends the given handlers to the handlers of their priority.
+	 * 
+	 * @param newHandlers The handlers to add.
+	 */
+	synchronized void addAll(Collection<Handler> newHandlers) {
+		for (Handler handler : newHandlers) {
+			handlers.get(handler.getPriority()).add(handler);
+			if (!handler.isIgnoreCancelled())
+				listeningCancelled[handler.getPriority().ordinal()]++;
+		}
+		updateCancelledLimit();
+	}
+
+	/**
+	 * Removes the given handlers from the handlers of their priority. Each queue is
+	 * traversed once whatever the number of handlers to remove.
+	 * 
+	 * @param oldHandlers The handlers to remove.
+	 */
+	synchronized void removeAll(Collection<Handler> oldHandlers) {
+		Set<Handler> removed = Collections.newSetFromMap(new IdentityHashMap<Handler, Boolean>());
+		removed.addAll(oldHandlers);
+
+		for (Queue<Handler> queue : handlers.values()) {
+			queue.removeIf(handler -> {
+				if (!removed.contains(handler))
+					return false;
+
+				if (!handler.isIgnoreCancelled())
+					listeningCancelled[handler.getPriority().ordinal()]--;
+				return true;
+			});
+		}
+		updateCancelledLimit();
+	}
+
+	/**
+	 * Removes the given handler from the handlers of its priority.
+	 * 
+	 * @param handler The handler to remove.
+	 */
+	synchronized void remove(Handler handler) {
+		if (handlers.get(handler.getPriority()).remove(handler) && !handler.isIgnoreCancelled()) {
+			listeningCancelled[handler.getPriority().ordinal()]--;
+			updateCancelledLimit();
+		}
+	}
+
+	/**
+	 * @return True if there is no handler in this table.
+	 */
+	boolean isEmpty() {
+		for (Queue<Handler> queue : handlers.values())
+			if (!queue.isEmpty())
+				return false;
+		return true;
+	}
+
+	/**
+	 * @return The ordinal of the last priority having a handler that does not
+	 *         ignore cancelled events, -1 if all handlers ignore cancelled events.
+	 *         Once an event is cancelled, it does not need to be dispatched to the
+	 *         handlers of the following priorities.
+	 */
+	int getCancelledLimit() {
+		return cancelledLimit;
+	}
+
+	private void updateCancelledLimit() {
+		int limit = -1;
+		for (int i = 0; i < listeningCancelled.length; i++)
+			if (listeningCancelled[i] > 0)
+				limit = i;
+		cancelledLimit = limit;
+	}
+}
@@ -0,0 +1,245 @@
+package fr.pederobien.utils.event;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+public class PropertyChangeCoalescer {
+	private static final ScheduledThreadPoolExecutor SCHEDULER;
+
+	private IEventBus bus;
+	private long window;
+	private int maxChanges;
+	private Map<PropertyKey, PendingChange<?>> pendingChanges;
+
+	static {
+		SCHEDULER = new ScheduledThreadPoolExecutor(1, runnable -> {
+			Thread thread = new Thread(runnable, "PropertyChangeCoalescer");
+			thread.setDaemon(true);
+			return thread;
+		});
+		SCHEDULER.setRemoveOnCancelPolicy(true);
+	}
+
+	/**
+	 * Creates a publisher that folds bursts of changes of the same property into a
+	 * single event, carrying the first old value and the last new value of the
+	 * burst. A burst starts with the first change of a property and is published
+	 * when the time window has elapsed or when the maximum number of changes has
+	 * been reached, whichever comes first. The time windows of all coalescers are
+	 * handled by one shared scheduler thread.
+	 * 
+	 * @param bus        The bus on which the coalesced events are called.
+	 * @param window     The duration, in milliseconds, of a burst. 0 in order to
+	 *                   publish a burst only when the maximum number of changes has
+	 *                   been reached.
+	 * @param maxChanges The maximum number of changes folded in one event. 0 in
+	 *                   order to publish a burst only when the time window has
+	 *                   elapsed.
+	 * 
+	 * @throws IllegalArgumentException If both the window and the maximum number of
+	 *                                  changes are 0, or if one of them is
+	 *                                  negative.
+	 */
+	public PropertyChangeCoalescer(IEventBus bus, long window, int maxChanges) {
+		if (window < 0 || maxChanges < 0 || (window == 0 && maxChanges == 0))
+			throw new IllegalArgumentException("A positive time window or a positive maximum number of changes is expected");
+
+		this.bus = bus;
+		this.window = window;
+		this.maxChanges = maxChanges;
+
+		pendingChanges = new ConcurrentHashMap<PropertyKey, PendingChange<?>>();
+	}
+
+	/**
+	 * Creates a publisher that folds bursts of changes of the same property into a
+	 * single event called on the default bus of the {@link EventManager}.
+	 * 
+	 * @param window     The duration, in milliseconds, of a burst.
+	 * @param maxChanges The maximum number of changes folded in one event.
+	 * 
+	 * @see #PropertyChangeCoalescer(IEventBus, long, int)
+	 */
+	public PropertyChangeCoalescer(long window, int maxChanges) {
+		this(EventManager.getDefault(), window, maxChanges);
+	}
+
+	/**
+	 * Notify that the value of a property has changed. The change is folded with
+	 * the pending changes of the same property of the same source, if any.
+	 * 
+	 * @param source   The object whose property has changed.
+	 * @param property The name of the property.
+	 * @param oldValue The old value of the property.
+	 * @param newValue The new value of the property.
+	 * @param factory  The function used to create the event from the first old
+	 *                 value and the last new value of the burst.
+	 */
+	public <T> void publish(Object source, String property, T oldValue, T newValue, BiFunction<T, T, ? extends Event> factory) {
+		PropertyKey key = new PropertyKey(source, property);
+
+		@SuppressWarnings("unchecked")
+		PendingChange<T> change = (PendingChange<T>) pendingChanges.compute(key, (k, current) -> {
+			if (current == null) {
+				PendingChange<T> created = new PendingChange<T>(oldValue, newValue, factory);
+				if (window > 0)
+					created.setFuture(SCHEDULER.schedule(() -> flush(k, created), window, TimeUnit.MILLISECONDS));
+				return created;
+			}
+
+			@SuppressWarnings("unchecked")
+			PendingChange<T> pending = (PendingChange<T>) current;
+			pending.update(newValue, factory);
+			return pending;
+		});
+
+		if (maxChanges > 0 && change.getCount() >= maxChanges)
+			flush(key, change);
+	}
+
+	/**
+	 * Notify that the value of a property has changed. The change is folded with
+	 * the pending changes of the same property of the same source, if any, and
+	 * published as a {@link PropertyChangeEvent}.
+	 * 
+	 * @param source   The object whose property has changed.
+	 * @param property The name of the property.
+	 * @param oldValue The old value of the property.
+	 * @param newValue The new value of the property.
+	 */
+	public <T> void publish(Object source, String property, T oldValue, T newValue) {
+		publish(source, property, oldValue, newValue, PropertyChangeEvent<T>::new);
+	}
+
+	/**
+	 * Publish immediately all pending changes.
+	 */
+	public void flush() {
+		for (Map.Entry<PropertyKey, PendingChange<?>> entry : pendingChanges.entrySet())
+			flush(entry.getKey(), entry.getValue());
+	}
+
+	/**
+	 * @return The number of properties whose changes are waiting to be published.
+	 */
+	public int getPendingCount() {
+		return pendingChanges.size();
+	}
+
+	/**
+	 * Publish the given pending change if it has not already been published.
+	 * 
+	 * @param key    The property whose value has changed.
+	 * @param change The changes to publish.
+	 */
+	private void flush(PropertyKey key, PendingChange<?> change) {
+		if (!pendingChanges.remove(key, change))
+			return;
+
+		change.cancel();
+		bus.callEvent(change.createEvent());
+	}
+
+	private static class PropertyKey {
+		private Object source;
+		private String property;
+
+		/**
+		 * Creates a key that identifies the property of an object.
+		 * 
+		 * @param source   The object whose property has changed.
+		 * @param property The name of the property.
+		 */
+		private PropertyKey(Object source, String property) {
+			this.source = source;
+			this.property = property;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * System.identityHashCode(source) + property.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+
+			if (!(obj instanceof PropertyKey))
+				return false;
+
+			PropertyKey other = (PropertyKey) obj;
+			return source == other.source && property.equals(other.property);
+		}
+	}
+
+	private static class PendingChange<T> {
+		private T oldValue, newValue;
+		private BiFunction<T, T, ? extends Event> factory;
+		private int count;
+		private ScheduledFuture<?> future;
+
+		/**
+		 * Creates the first change of a burst.
+		 * 
+		 * @param oldValue The old value of the property.
+		 * @param newValue The new value of the property.
+		 * @param factory  The function used to create the event.
+		 */
+		private PendingChange(T oldValue, T newValue, BiFunction<T, T, ? extends Event> factory) {
+			this.oldValue = oldValue;
+			this.newValue = newValue;
+			this.factory = factory;
+			count = 1;
+		}
+
+		/**
+		 * Fold a new change in this burst.
+		 * 
+		 * @param newValue The new value of the property.
+		 * @param factory  The function used to create the event.
+		 */
+		private synchronized void update(T newValue, BiFunction<T, T, ? extends Event> factory) {
+			this.newValue = newValue;
+			this.factory = factory;
+			count++;
+		}
+
+		/**
+		 * @return The number of changes folded in this burst.
+		 */
+		private synchronized int getCount() {
+			return count;
+		}
+
+		/**
+		 * Set the future associated to the flush of this burst once its time window
+		 * has elapsed.
+		 * 
+		 * @param future The future of the scheduled flush.
+		 */
+		private synchronized void setFuture(ScheduledFuture<?> future) {
+			this.future = future;
+		}
+
+		/**
+		 * Cancel the scheduled flush of this burst, if any.
+		 */
+		private synchronized void cancel() {
+			if (future != null)
+				future.cancel(false);
+		}
+
+		/**
+		 * @return The event carrying the first old value and the last new value of
+		 *         this burst.
+		 */
+		private synchronized Event createEvent() {
+			return factory.apply(oldValue, newValue);
+		}
+	}
+}
@@ -0,0 +1,261 @@
+package fr.pederobien.utils.event;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+import fr.pederobien.utils.Disposable;
+import fr.pederobien.utils.IDisposable;
+
+public class RingEventBus extends EventBus {
+	private Event[] slots;
+	private AtomicLongArray published;
+	private int mask;
+	private AtomicLong claimed, consumed;
+	private IWaitStrategy waitStrategy;
+	private Set<Class<? extends Event>> ringEvents;
+	private volatile Thread consumerThread;
+	private IDisposable disposable;
+	private long nextSequence;
+	private BooleanSupplier available;
+
+	/**
+	 * Creates an event bus that publishes events in a pre-allocated ring of slots
+	 * instead of dispatching them in the calling thread. Producers claim a slot
+	 * by incrementing a sequence counter, without lock, and a dedicated thread
+	 * consumes all the published events at once and dispatches them to the
+	 * handlers, consecutive events of the same class being dispatched together as
+	 * with {@link #callEvents(Collection)}. When the ring is full, producers wait
+	 * for the consumer to free a slot. The events published in the ring are
+	 * dispatched once this bus has been started, publishing an event while the
+	 * ring is full and this bus has not been started throws an
+	 * IllegalStateException instead of waiting forever.
+	 * <p>
+	 * Since events are dispatched asynchronously, the caller cannot check if an
+	 * event has been cancelled once {@link #callEvent(Event)} returns.
+	 * 
+	 * @param bufferSize   The number of slots of the ring, must be a power of two.
+	 * @param waitStrategy The strategy used by the consumer thread to wait for
+	 *                     published events.
+	 * @param ringEvents   The classes of the events to publish in the ring, the
+	 *                     other events are dispatched synchronously. Empty in order
+	 *                     to publish all events in the ring.
+	 * 
+	 * @throws IllegalArgumentException If the buffer size is not a power of two.
+	 */
+	public RingEventBus(int bufferSize, IWaitStrategy waitStrategy, Collection<Class<? extends Event>> ringEvents) {
+		if (bufferSize <= 0 || Integer.bitCount(bufferSize) != 1)
+			throw new IllegalArgumentException("The size of the ring must be a power of two");
+
+		this.waitStrategy = waitStrategy;
+		this.ringEvents = Collections.unmodifiableSet(new HashSet<Class<? extends Event>>(ringEvents));
+
+		slots = new Event[bufferSize];
+		published = new AtomicLongArray(bufferSize);
+		for (int i = 0; i < bufferSize; i++)
+			published.set(i, -1);
+		mask = bufferSize - 1;
+
+		claimed = new AtomicLong(0);
+		consumed = new AtomicLong(-1);
+		disposable = new Disposable();
+		available = () -> isPublished(nextSequence) || disposable.isDisposed();
+	}
+
+	/**
+	 * Creates an event bus that publishes all events in a pre-allocated ring of
+	 * slots.
+	 * 
+	 * @param bufferSize   The number of slots of the ring, must be a power of two.
+	 * @param waitStrategy The strategy used by the consumer thread to wait for
+	 *                     published events.
+	 * 
+	 * @see #RingEventBus(int, IWaitStrategy, Collection)
+	 */
+	public RingEventBus(int bufferSize, IWaitStrategy waitStrategy) {
+		this(bufferSize, waitStrategy, Collections.emptySet());
+	}
+
+	/**
+	 * Start the consumer thread in order to dispatch the events published in the
+	 * ring. The thread is created here rather than in the constructor so that it
+	 * never sees a partially constructed bus.
+	 * 
+	 * @throws IllegalStateException If this bus has already been started.
+	 */
+	public synchronized void start() {
+		disposable.checkDisposed();
+		if (consumerThread != null)
+			throw new IllegalStateException("The bus has already been started");
+
+		Thread thread = new Thread(() -> consume(), "RingEventBus");
+		thread.setDaemon(true);
+		consumerThread = thread;
+		thread.start();
+	}
+
+	@Override
+	public void callEvent(Event event) {
+		if (isRingEvent(event))
+			publish(event);
+		else
+			super.callEvent(event);
+	}
+
+	@Override
+	public void callEvents(Collection<? extends Event> events) {
+		List<Event> synchronous = new ArrayList<Event>();
+		for (Event event : events) {
+			if (isRingEvent(event))
+				publish(event);
+			else
+				synchronous.add(event);
+		}
+
+		if (!synchronous.isEmpty())
+			super.callEvents(synchronous);
+	}
+
+	/**
+	 * @return The number of slots of the ring.
+	 */
+	public int getBufferSize() {
+		return slots.length;
+	}
+
+	/**
+	 * @return The classes of the events published in the ring, empty if all events
+	 *         are published in the ring.
+	 */
+	public Set<Class<? extends Event>> getRingEvents() {
+		return ringEvents;
+	}
+
+	/**
+	 * @return The number of events published in the ring but not consumed yet.
+	 */
+	public long getPendingCount() {
+		return claimed.get() - consumed.get() - 1;
+	}
+
+	/**
+	 * Dispose this bus. The consumer thread is stopped and the events that have not
+	 * been consumed yet are discarded, no event can be published anymore.
+	 */
+	public void dispose() {
+		if (!disposable.dispose())
+			return;
+
+		Thread thread = consumerThread;
+		if (thread != null)
+			thread.interrupt();
+		waitStrategy.signalAll();
+	}
+
+	/**
+	 * @return True if this bus has been disposed.
+	 */
+	public boolean isDisposed() {
+		return disposable.isDisposed();
+	}
+
+	/**
+	 * Claim the next slot of the ring, waiting for the consumer if the ring is
+	 * full, and publish the given event in it.
+	 * 
+	 * @param event The event to publish.
+	 * 
+	 * @throws IllegalStateException If the ring is full and this bus has not been
+	 *                               started.
+	 */
+	private void publish(Event event) {
+		disposable.checkDisposed();
+
+		long sequence = consumerThread != null ? claimed.getAndIncrement() : claimBeforeStart();
+
+		// The slot is still used by an event that has not been consumed
+		while (sequence - slots.length > consumed.get()) {
+			disposable.checkDisposed();
+			LockSupport.parkNanos(1);
+		}
+
+		int index = (int) sequence & mask;
+		slots[index] = event;
+
+		// Writing the sequence makes the event visible to the consumer
+		published.set(index, sequence);
+		waitStrategy.signalAll();
+	}
+
+	/**
+	 * Claim the next slot of the ring while no consumer is running. The slot is
+	 * only claimed if it is free since nothing would free it otherwise.
+	 * 
+	 * @return The sequence of the claimed slot.
+	 * 
+	 * @throws IllegalStateException If the ring is full and this bus has not been
+	 *                               started.
+	 */
+	private long claimBeforeStart() {
+		while (true) {
+			long sequence = claimed.get();
+			if (consumerThread == null && sequence - slots.length > consumed.get())
+				throw new IllegalStateException("The ring is full and the bus has not been started");
+			if (claimed.compareAndSet(sequence, sequence + 1))
+				return sequence;
+		}
+	}
+
+	private void consume() {
+		List<Event> batch = new ArrayList<Event>(slots.length);
+		while (!disposable.isDisposed()) {
+			try {
+				waitStrategy.waitFor(available);
+			} catch (InterruptedException e) {
+				// Bus has been disposed, nothing to do
+				continue;
+			}
+
+			if (disposable.isDisposed())
+				break;
+
+			// Consuming all events published so far at once
+			long last = nextSequence;
+			while (last - nextSequence < mask && isPublished(last + 1))
+				last++;
+
+			for (long sequence = nextSequence; sequence <= last; sequence++) {
+				int index = (int) sequence & mask;
+				batch.add(slots[index]);
+				slots[index] = null;
+			}
+
+			// Freeing the slots before dispatching the events
+			consumed.set(last);
+			nextSequence = last + 1;
+
+			try {
+				super.callEvents(batch);
+			} catch (Exception e) {
+				e.printStackTrace();
+			} finally {
+				batch.clear();
+			}
+		}
+	}
+
+	private boolean isPublished(long sequence) {
+		return published.get((int) sequence & mask) == sequence;
+	}
+
+	private boolean isRingEvent(Event event) {
+		return ringEvents.isEmpty() || ringEvents.contains(event.getClass());
+	}
+}
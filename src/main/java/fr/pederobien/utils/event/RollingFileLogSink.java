@@ -0,0 +1,310 @@
+package fr.pederobien.utils.event;
+
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+public class RollingFileLogSink implements ILogSink {
+	/**
+	 * The extension of the files in which the logs are written.
+	 */
+	public static final String EXTENSION = ".log";
+	private static final ScheduledThreadPoolExecutor SCHEDULER;
+
+	private Path directory;
+	private String prefix;
+	private int segmentSize;
+	private long rollInterval;
+	private int maxFiles;
+	private CharsetEncoder encoder;
+	private volatile Segment segment;
+	private int nextIndex;
+	private ScheduledFuture<?> fsync;
+	private boolean isClosed;
+
+	static {
+		SCHEDULER = new ScheduledThreadPoolExecutor(1, runnable -> {
+			Thread thread = new Thread(runnable, "RollingFileLogSink");
+			thread.setDaemon(true);
+			return thread;
+		});
+		SCHEDULER.setRemoveOnCancelPolicy(true);
+	}
+
+	/**
+	 * Creates a sink that writes the logs sequentially in memory-mapped files. The
+	 * files are named after the prefix followed by an index, each file is
+	 * allocated with the size of a segment when created and truncated to its
+	 * content when the next file is created. A new file is created when the
+	 * current one is full or when the roll interval has elapsed since its
+	 * creation. Writing never waits for the disk, the content of the files is
+	 * written to the disk by the operating system, or periodically by a shared
+	 * background thread if a fsync interval is set.
+	 * 
+	 * @param directory    The directory in which the files are created.
+	 * @param prefix       The prefix of the file names.
+	 * @param segmentSize  The size, in bytes, of a file.
+	 * @param rollInterval The maximum time, in milliseconds, during which logs are
+	 *                     written in the same file. 0 in order to roll only when
+	 *                     the file is full.
+	 * @param maxFiles     The maximum number of files to keep, the oldest ones are
+	 *                     deleted. 0 in order to keep all files.
+	 * @param charset      The charset used to encode the logs.
+	 * 
+	 * @throws IllegalArgumentException If the size of a segment is less than 4
+	 *                                  bytes or if the roll interval or the maximum number
+	 *                                  of files is negative.
+	 */
+	public RollingFileLogSink(Path directory, String prefix, int segmentSize, long rollInterval, int maxFiles, Charset charset) {
+		if (segmentSize < 4)
+			throw new IllegalArgumentException("The size of a segment must be at least 4 bytes");
+
+		if (rollInterval < 0 || maxFiles < 0)
+			throw new IllegalArgumentException("The roll interval and the maximum number of files must not be negative");
+
+		this.directory = directory;
+		this.prefix = prefix;
+		this.segmentSize = segmentSize;
+		this.rollInterval = rollInterval;
+		this.maxFiles = maxFiles;
+
+		encoder = charset.newEncoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+		nextIndex = -1;
+	}
+
+	/**
+	 * Creates a sink that writes the logs encoded in UTF-8 in memory-mapped files.
+	 * 
+	 * @param directory    The directory in which the files are created.
+	 * @param prefix       The prefix of the file names.
+	 * @param segmentSize  The size, in bytes, of a file.
+	 * @param rollInterval The maximum time, in milliseconds, during which logs are
+	 *                     written in the same file.
+	 * @param maxFiles     The maximum number of files to keep.
+	 * 
+	 * @see #RollingFileLogSink(Path, String, int, long, int, Charset)
+	 */
+	public RollingFileLogSink(Path directory, String prefix, int segmentSize, long rollInterval, int maxFiles) {
+		this(directory, prefix, segmentSize, rollInterval, maxFiles, Charset.forName("UTF-8"));
+	}
+
+	@Override
+	public synchronized void write(CharSequence text) throws IOException {
+		// The sink may still be registered in a logger
+		if (isClosed)
+			return;
+
+		if (segment == null || (rollInterval > 0 && System.currentTimeMillis() - segment.creationTime >= rollInterval))
+			roll();
+
+		CharBuffer chars = CharBuffer.wrap(text);
+		encoder.reset();
+
+		// A log larger than the room left is continued in the next file
+		CoderResult result;
+		while ((result = encoder.encode(chars, segment.buffer, true)).isOverflow())
+			roll();
+
+		while ((result = encoder.flush(segment.buffer)).isOverflow())
+			roll();
+
+		if (result.isError())
+			result.throwException();
+	}
+
+	@Override
+	public void flush() {
+		// The mapped memory is written to the disk by the operating system
+	}
+
+	/**
+	 * Write the current file to the disk and close it. The logs written once this
+	 * sink is closed are ignored.
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if (isClosed)
+			return;
+
+		isClosed = true;
+		if (fsync != null)
+			fsync.cancel(false);
+
+		if (segment != null) {
+			segment.buffer.force();
+			segment.close();
+		}
+	}
+
+	/**
+	 * Set the interval at which the content of the current file is written to the
+	 * disk by a background thread.
+	 * 
+	 * @param fsyncInterval The fsync interval, in milliseconds. 0 in order to let
+	 *                      the operating system write the content to the disk.
+	 * 
+	 * @return This sink.
+	 */
+	public synchronized RollingFileLogSink fsyncInterval(long fsyncInterval) {
+		if (fsync != null)
+			fsync.cancel(false);
+
+		fsync = null;
+		if (fsyncInterval > 0)
+			fsync = SCHEDULER.scheduleWithFixedDelay(() -> force(segment), fsyncInterval, fsyncInterval, TimeUnit.MILLISECONDS);
+		return this;
+	}
+
+	/**
+	 * @return The directory in which the files are created.
+	 */
+	public Path getDirectory() {
+		return directory;
+	}
+
+	/**
+	 * @return The path of the file in which the logs are currently written, or null
+	 *         if no log has been written yet.
+	 */
+	public Path getCurrentFile() {
+		Segment current = segment;
+		return current == null ? null : current.path;
+	}
+
+	/**
+	 * Close the current file, if any, create the next one and delete the oldest
+	 * files.
+	 * 
+	 * @throws IOException If the next file cannot be created.
+	 */
+	private void roll() throws IOException {
+		if (nextIndex < 0) {
+			Files.createDirectories(directory);
+			List<Path> files = listFiles();
+			nextIndex = files.isEmpty() ? 0 : getIndex(files.get(files.size() - 1)) + 1;
+		}
+
+		Segment previous = segment;
+		segment = new Segment(directory.resolve(String.format("%s.%08d%s", prefix, nextIndex++, EXTENSION)), segmentSize);
+
+		if (previous != null) {
+			if (fsync != null)
+				force(previous);
+			previous.close();
+		}
+
+		if (maxFiles > 0) {
+			List<Path> files = listFiles();
+			for (int i = 0; i < files.size() - maxFiles; i++) {
+				try {
+					Files.deleteIfExists(files.get(i));
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return The files of this sink, sorted by index.
+	 * 
+	 * @throws IOException If the directory cannot be read.
+	 */
+	private List<Path> listFiles() throws IOException {
+		List<Path> files = new ArrayList<Path>();
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, prefix + ".*" + EXTENSION)) {
+			for (Path path : stream)
+				if (getIndex(path) >= 0)
+					files.add(path);
+		}
+		Collections.sort(files, (p1, p2) -> Integer.compare(getIndex(p1), getIndex(p2)));
+		return files;
+	}
+
+	/**
+	 * @param path The path of a file.
+	 * 
+	 * @return The index of the file, or -1 if the file does not belong to this
+	 *         sink.
+	 */
+	private int getIndex(Path path) {
+		String name = path.getFileName().toString();
+		String index = name.substring(prefix.length() + 1, name.length() - EXTENSION.length());
+		if (index.length() != 8 || !index.chars().allMatch(Character::isDigit))
+			return -1;
+		return Integer.parseInt(index);
+	}
+
+	/**
+	 * Write the content of the given segment to the disk.
+	 * 
+	 * @param segment The segment to write, may be null.
+	 */
+	private void force(Segment segment) {
+		try {
+			if (segment != null)
+				segment.buffer.force();
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+	}
+
+	private static class Segment {
+		private Path path;
+		private FileChannel channel;
+		private MappedByteBuffer buffer;
+		private long creationTime;
+
+		/**
+		 * Creates a file with the given size and maps it in memory.
+		 * 
+		 * @param path The path of the file.
+		 * @param size The size, in bytes, of the file.
+		 * 
+		 * @throws IOException If the file already exists or cannot be mapped.
+		 */
+		private Segment(Path path, int size) throws IOException {
+			this.path = path;
+
+			StandardOpenOption[] options = { StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE };
+			channel = FileChannel.open(path, options);
+			buffer = channel.map(MapMode.READ_WRITE, 0, size);
+			creationTime = System.currentTimeMillis();
+		}
+
+		/**
+		 * Truncate the file to its content and close it. The mapped memory remains
+		 * valid until it is garbage collected.
+		 */
+		private void close() {
+			try {
+				channel.truncate(buffer.position());
+			} catch (IOException e) {
+				// Some systems cannot truncate a mapped file, the end of the file is
+				// then filled with zeros
+			} finally {
+				try {
+					channel.close();
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,37 @@
+package fr.pederobien.utils.event;
+
+public class ShardedEventBus extends EventBus {
+	private HandlerRegistry[] shards;
+
+	/**
+	 * Creates an event bus whose event classes are partitioned across independent
+	 * registries. The handlers of unrelated event classes are then stored in
+	 * different structures, so that registering or dispatching events of one class
+	 * does not contend with the other classes of other shards.
+	 * 
+	 * @param shardCount The number of independent registries.
+	 * 
+	 * @throws IllegalArgumentException If the number of shards is not positive.
+	 */
+	public ShardedEventBus(int shardCount) {
+		if (shardCount <= 0)
+			throw new IllegalArgumentException("The number of shards must be positive");
+
+		shards = new HandlerRegistry[shardCount];
+		for (int i = 0; i < shardCount; i++)
+			shards[i] = new HandlerRegistry();
+	}
+
+	/**
+	 * @return The number of independent registries of this bus.
+	 */
+	public int getShardCount() {
+		return shards.length;
+	}
+
+	@Override
+	HandlerRegistry getRegistry(Class<? extends Event> eventClass) {
+		int hash = eventClass.hashCode();
+		return shards[Math.floorMod(hash ^ (hash >>> 16), shards.length)];
+	}
+}
@@ -0,0 +1,18 @@
+package fr.pederobien.utils.event;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * An annotation to mark an event class as being sticky. The bus keeps the last
+ * called event of the class, and the last one of each routing key if the class
+ * implements {@link IKeyedEvent}, so that it can be read at any time and
+ * dispatched to the handlers of the listeners registered later. Cancelled
+ * events are not kept.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Sticky {
+}
@@ -0,0 +1,31 @@
+package fr.pederobien.utils.event;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * Wait strategy that spins on the condition for a while, then yields the
+ * processor to other threads between each check. It is a compromise between
+ * latency and CPU usage.
+ */
+public class YieldingWaitStrategy implements IWaitStrategy {
+	private static final int SPIN_TRIES = 100;
+
+	@Override
+	public void waitFor(BooleanSupplier condition) throws InterruptedException {
+		int counter = SPIN_TRIES;
+		while (!condition.getAsBoolean()) {
+			if (Thread.interrupted())
+				throw new InterruptedException();
+
+			if (counter > 0)
+				counter--;
+			else
+				Thread.yield();
+		}
+	}
+
+	@Override
+	public void signalAll() {
+		// Waiting threads are yielding, nothing to do
+	}
+}
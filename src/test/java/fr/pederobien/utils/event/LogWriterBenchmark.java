@@ -0,0 +1,86 @@
+package fr.pederobien.utils.event;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares the throughput of a log writer using the shared queue with the
+ * throughput of a log writer using a buffer per thread.
+ */
+public class LogWriterBenchmark {
+
+	/**
+	 * Measures the throughput of a writer with 1 to 64 threads adding records, with
+	 * the shared queue and then with a buffer per thread. The records are written
+	 * to a sink that only counts them.
+	 * 
+	 * @param args The number of records added by each measure and the capacity of
+	 *             the buffer of each thread, 400000 and 16384 by default.
+	 * 
+	 * @throws InterruptedException If the current thread is interrupted.
+	 */
+	public static void main(String[] args) throws InterruptedException {
+		int records = args.length > 0 ? Integer.parseInt(args[0]) : 400000;
+		int capacity = args.length > 1 ? Integer.parseInt(args[1]) : 16384;
+
+		System.out.printf("%d records, %d available processors%n", records, Runtime.getRuntime().availableProcessors());
+		System.out.printf("%8s %16s %16s%n", "Threads", "Queue (Mlog/s)", "Buffers (Mlog/s)");
+		for (int threads = 1; threads <= 64; threads *= 2)
+			System.out.printf("%8d %16.2f %16.2f%n", threads, measure(threads, records, 0), measure(threads, records, capacity));
+	}
+
+	/**
+	 * Adds the given number of records to a new writer from the given number of
+	 * threads and waits for the writer to consume them.
+	 * 
+	 * @param threads  The number of threads that add records.
+	 * @param records  The total number of records to add.
+	 * @param capacity The capacity of the buffer of each thread, 0 in order to use
+	 *                 the shared queue.
+	 * 
+	 * @return The number of millions of records written per second.
+	 * 
+	 * @throws InterruptedException If the current thread is interrupted.
+	 */
+	private static double measure(int threads, int records, int capacity) throws InterruptedException {
+		AtomicLong written = new AtomicLong();
+		LogWriter<Long> writer = new LogWriter<Long>("Benchmark", (record, sink) -> {
+			written.incrementAndGet();
+			return 1;
+		}, record -> record, 10000);
+		writer.getOverflow().timeout(60000);
+		writer.setBufferCapacity(capacity);
+		writer.addSink(new ILogSink() {
+			@Override
+			public void write(CharSequence text) {
+			}
+
+			@Override
+			public void flush() {
+			}
+
+			@Override
+			public void close() {
+			}
+		});
+		writer.start();
+
+		Thread[] producers = new Thread[threads];
+		long start = System.nanoTime();
+		for (int i = 0; i < threads; i++) {
+			producers[i] = new Thread(() -> {
+				for (int j = 0; j < records / threads; j++)
+					writer.add(System.nanoTime());
+			});
+			producers[i].start();
+		}
+
+		for (Thread producer : producers)
+			producer.join();
+		while (written.get() < records / threads * threads)
+			Thread.sleep(1);
+
+		long elapsed = System.nanoTime() - start;
+		writer.dispose();
+		return written.get() * 1000.0 / elapsed;
+	}
+}